@@ -0,0 +1,45 @@
+package com.optimize25.backend.config;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts exchanges on the shared HTTP client and how many of them reused a pooled connection,
+// plus the streams opened by OpenAiStreamClient, which uses its own client
+public class HttpClientMetrics {
+
+    private final LongAdder exchanges = new LongAdder();
+    private final LongAdder reusedConnections = new LongAdder();
+    private final LongAdder streamExchanges = new LongAdder();
+    private final LongAdder openStreams = new LongAdder();
+
+    void recordExchange(long requestsOnConnection) {
+        exchanges.increment();
+        if (requestsOnConnection > 1) {
+            reusedConnections.increment();
+        }
+    }
+
+    public void recordStreamOpened() {
+        streamExchanges.increment();
+        openStreams.increment();
+    }
+
+    public void recordStreamClosed() {
+        openStreams.decrement();
+    }
+
+    public long getExchanges() {
+        return exchanges.sum();
+    }
+
+    public long getReusedConnections() {
+        return reusedConnections.sum();
+    }
+
+    public long getStreamExchanges() {
+        return streamExchanges.sum();
+    }
+
+    public long getOpenStreams() {
+        return openStreams.sum();
+    }
+}
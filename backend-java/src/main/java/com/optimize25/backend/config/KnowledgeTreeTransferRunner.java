@@ -0,0 +1,76 @@
+package com.optimize25.backend.config;
+
+import com.optimize25.backend.service.KnowledgeTreeTransferService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Command-line import and export, for moving trees between environments without going through
+// HTTP. The application exits once the transfer is done, e.g.
+//   java -jar backend.jar --spring.main.web-application-type=none --tree.export=tree.ndjson [--tree.export.root=7] [--tree.export.format=json]
+//   java -jar backend.jar --spring.main.web-application-type=none --tree.import=tree.ndjson [--tree.import.parent=6]
+@Component
+public class KnowledgeTreeTransferRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnowledgeTreeTransferRunner.class);
+
+    private final KnowledgeTreeTransferService transferService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${tree.import:}")
+    private String importFile;
+
+    @Value("${tree.import.parent:#{null}}")
+    private Long importParent;
+
+    @Value("${tree.export:}")
+    private String exportFile;
+
+    @Value("${tree.export.root:#{null}}")
+    private Long exportRoot;
+
+    @Value("${tree.export.format:ndjson}")
+    private String exportFormat;
+
+    public KnowledgeTreeTransferRunner(KnowledgeTreeTransferService transferService,
+                                       ConfigurableApplicationContext context) {
+        this.transferService = transferService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (importFile.isEmpty() && exportFile.isEmpty()) {
+            return;
+        }
+        int exitCode = 0;
+        try {
+            if (!importFile.isEmpty()) {
+                try (InputStream in = new BufferedInputStream(Files.newInputStream(Path.of(importFile)))) {
+                    transferService.importNodes(in, importParent);
+                }
+            }
+            if (!exportFile.isEmpty()) {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of(exportFile)))) {
+                    transferService.export(exportRoot, "json".equalsIgnoreCase(exportFormat), out);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Knowledge tree transfer failed: {}", e.getMessage(), e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+}
@@ -0,0 +1,36 @@
+package com.optimize25.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+
+// Compares how long the application took to become ready against startup.budget, so a slow
+// migration or initializer shows up in the logs instead of going unnoticed
+@Component
+public class StartupBudgetReporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupBudgetReporter.class);
+
+    private final Duration budget;
+
+    public StartupBudgetReporter(@Value("${startup.budget:20s}") Duration budget) {
+        this.budget = budget;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(ApplicationReadyEvent event) {
+        Duration taken = event.getTimeTaken();
+        if (taken == null) {
+            return;
+        }
+        if (taken.compareTo(budget) > 0) {
+            logger.warn("Startup took {} ms, over the {} ms budget", taken.toMillis(), budget.toMillis());
+        } else {
+            logger.info("Startup took {} ms, within the {} ms budget", taken.toMillis(), budget.toMillis());
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.optimize25.backend.controller;
 
 import com.optimize25.backend.config.OpenAiConfig;
+import com.optimize25.backend.service.OpenAiStreamClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
 import java.util.*;
 
 @RestController
@@ -12,12 +17,18 @@ import java.util.*;
 @CrossOrigin(origins = "http://localhost:3000")
 public class AskController {
 
+    private static final Logger logger = LoggerFactory.getLogger(AskController.class);
+    private static final long STREAM_TIMEOUT_MS = 5 * 60 * 1000;
+
     @Autowired
     private OpenAiConfig openAiConfig;
 
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private OpenAiStreamClient openAiStreamClient;
+
     @PostMapping("/ask")
     public ResponseEntity<?> askQuestion(@RequestBody Map<String, String> request) {
         String question = request.get("question");
@@ -60,4 +71,60 @@ public class AskController {
                 .body("Error processing request: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    // Relays the answer as server-sent events while it is generated: "token" events carry
+    // {"text": ...} fragments, then a final "done" or "error" event. The request thread is
+    // released immediately and no thread is held while waiting on OpenAI.
+    @PostMapping(value = "/ask/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> askQuestionStream(@RequestBody Map<String, String> request) {
+        String question = request.get("question");
+        if (question == null || question.trim().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", "gpt-3.5-turbo");
+        requestBody.put("messages", Arrays.asList(
+            Map.of("role", "system", "content", "You are a helpful assistant."),
+            Map.of("role", "user", "content", question)
+        ));
+        requestBody.put("temperature", 0.7);
+
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        OpenAiStreamClient.ChatStream stream = openAiStreamClient.streamChat(requestBody, delta -> {
+            try {
+                emitter.send(SseEmitter.event().name("token").data(Map.of("text", delta), MediaType.APPLICATION_JSON));
+            } catch (IOException e) {
+                // The browser went away; failing the callback stops the upstream read
+                throw new ClientDisconnectedException(e);
+            }
+        });
+
+        stream.completion().whenComplete((ignored, error) -> {
+            try {
+                if (error == null) {
+                    emitter.send(SseEmitter.event().name("done").data(""));
+                    emitter.complete();
+                } else if (!stream.completion().isCancelled() && !(error instanceof ClientDisconnectedException)) {
+                    logger.error("Streaming answer failed: {}", error.getMessage());
+                    emitter.send(SseEmitter.event().name("error").data("Failed to get response from ChatGPT"));
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        emitter.onTimeout(stream::cancel);
+        emitter.onError(error -> stream.cancel());
+        emitter.onCompletion(stream::cancel);
+
+        // no-transform keeps compressing proxies, such as the front-end dev server, from buffering events
+        return ResponseEntity.ok().header(HttpHeaders.CACHE_CONTROL, "no-cache, no-transform").body(emitter);
+    }
+
+    private static class ClientDisconnectedException extends RuntimeException {
+        ClientDisconnectedException(IOException cause) {
+            super("Client disconnected", cause);
+        }
+    }
+}
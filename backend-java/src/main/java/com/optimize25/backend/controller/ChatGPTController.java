@@ -1,41 +1,95 @@
 package com.optimize25.backend.controller;
 
 import org.springframework.web.bind.annotation.*;
-import com.optimize25.backend.service.ChatGPTService;
+import com.optimize25.backend.config.HttpClientMetrics;
+import com.optimize25.backend.dto.PopulationJobDTO;
+import com.optimize25.backend.model.PopulationJob;
+import com.optimize25.backend.service.PopulationJobService;
+import com.optimize25.backend.service.TopicClassifier;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Autowired;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/chatgpt")
 @CrossOrigin(origins = "http://localhost:3000")
 public class ChatGPTController {
 
-    private final ChatGPTService chatGPTService;
+    private final PopulationJobService populationJobService;
+    private final PoolingHttpClientConnectionManager httpConnectionManager;
+    private final HttpClientMetrics httpClientMetrics;
+    private final TopicClassifier topicClassifier;
 
     @Autowired
-    public ChatGPTController(ChatGPTService chatGPTService) {
-        this.chatGPTService = chatGPTService;
-    }
-
-    @PostMapping("/populate/physical")
-    public ResponseEntity<String> populateOptimizePhysical() {
-        try {
-            chatGPTService.populateOptimizePhysical();
-            return ResponseEntity.ok("Successfully populated Optimize Physical content");
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body("Failed to populate content: " + e.getMessage());
-        }
+    public ChatGPTController(PopulationJobService populationJobService,
+                             PoolingHttpClientConnectionManager httpConnectionManager,
+                             HttpClientMetrics httpClientMetrics,
+                             TopicClassifier topicClassifier) {
+        this.populationJobService = populationJobService;
+        this.httpConnectionManager = httpConnectionManager;
+        this.httpClientMetrics = httpClientMetrics;
+        this.topicClassifier = topicClassifier;
     }
 
+    // Starts a background populate job; poll the Location for its progress
     @PostMapping("/populate/{nodeName}")
-    public ResponseEntity<Void> populateNode(@PathVariable String nodeName) {
+    public ResponseEntity<PopulationJobDTO> populateNode(@PathVariable String nodeName) {
+        String decodedNodeName;
         try {
             // Decode the URL-encoded node name
-            String decodedNodeName = java.net.URLDecoder.decode(nodeName, "UTF-8");
-            chatGPTService.populateNode(decodedNodeName);
-            return ResponseEntity.ok().build();
+            decodedNodeName = java.net.URLDecoder.decode(nodeName, "UTF-8");
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
+        try {
+            PopulationJob job = populationJobService.submit(decodedNodeName);
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/chatgpt/populate/jobs/" + job.getId()))
+                .body(new PopulationJobDTO(job));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .build();
+        }
+    }
+
+    @GetMapping("/populate/jobs/{id}")
+    public ResponseEntity<PopulationJobDTO> getPopulationJob(@PathVariable Long id) {
+        return populationJobService.getJob(id)
+            .map(job -> ResponseEntity.ok(new PopulationJobDTO(job)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    // How populate requests were classified, and how many still needed GPT-4
+    @GetMapping("/classification/stats")
+    public ResponseEntity<Map<String, Object>> getClassificationStats() {
+        return ResponseEntity.ok(topicClassifier.stats());
+    }
+
+    // Connection pool usage and reuse for the shared OpenAI HTTP client, and the streaming client's load
+    @GetMapping("/http/stats")
+    public ResponseEntity<Map<String, Object>> getHttpStats() {
+        PoolStats pool = httpConnectionManager.getTotalStats();
+        long exchanges = httpClientMetrics.getExchanges();
+        long reused = httpClientMetrics.getReusedConnections();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("leased", pool.getLeased());
+        stats.put("available", pool.getAvailable());
+        stats.put("pending", pool.getPending());
+        stats.put("max", pool.getMax());
+        stats.put("exchanges", exchanges);
+        stats.put("reusedConnections", reused);
+        stats.put("reuseRate", exchanges == 0 ? 0.0 : (double) reused / exchanges);
+        stats.put("streamExchanges", httpClientMetrics.getStreamExchanges());
+        stats.put("openStreams", httpClientMetrics.getOpenStreams());
+        return ResponseEntity.ok(stats);
     }
-} 
\ No newline at end of file
+}
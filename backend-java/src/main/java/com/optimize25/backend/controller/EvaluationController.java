@@ -3,9 +3,14 @@ package com.optimize25.backend.controller;
 import com.optimize25.backend.model.QuizRequest;
 import com.optimize25.backend.model.QuizSubmission;
 import com.optimize25.backend.service.EvaluationService;
+import com.optimize25.backend.service.QuizResultWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/evaluate")
@@ -15,19 +20,38 @@ public class EvaluationController {
     @Autowired
     private EvaluationService evaluationService;
 
+    @Autowired
+    private QuizResultWriter quizResultWriter;
+
     @PostMapping("/generate-quiz")
     public ResponseEntity<?> generateQuiz(@RequestBody QuizRequest request) {
         try {
-            return ResponseEntity.ok(evaluationService.generateQuiz(request.getTopic()));
+            return ResponseEntity.ok(evaluationService.generateQuiz(request.getTopic(), request.getNodeId()));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Failed to generate quiz: " + e.getMessage());
         }
     }
 
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(evaluationService.getQuizCacheStats());
+    }
+
+    @GetMapping("/results/stats")
+    public ResponseEntity<Map<String, Object>> getResultWriterStats() {
+        return ResponseEntity.ok(quizResultWriter.stats());
+    }
+
     @PostMapping("/submit-quiz")
     public ResponseEntity<?> submitQuiz(@RequestBody QuizSubmission submission) {
         try {
             return ResponseEntity.ok(evaluationService.evaluateQuiz(submission));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body("Too many quiz submissions, please retry shortly");
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Failed to evaluate quiz: " + e.getMessage());
         }
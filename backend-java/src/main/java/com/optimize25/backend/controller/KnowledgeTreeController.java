@@ -1,16 +1,27 @@
 package com.optimize25.backend.controller;
 
 import com.optimize25.backend.dto.KnowledgeNodeDTO;
+import com.optimize25.backend.dto.KnowledgeNodeSummaryDTO;
+import com.optimize25.backend.dto.TreeNodeDTO;
 import com.optimize25.backend.model.KnowledgeNode;
 import com.optimize25.backend.service.KnowledgeTreeService;
+import com.optimize25.backend.service.KnowledgeTreeTransferService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.InputStream;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/knowledge-tree")
@@ -18,64 +29,157 @@ import java.util.Optional;
 public class KnowledgeTreeController {
 
     private final KnowledgeTreeService knowledgeTreeService;
+    private final KnowledgeTreeJsonWriter jsonWriter;
+    private final KnowledgeTreeTransferService transferService;
     private static final Logger logger = LoggerFactory.getLogger(KnowledgeTreeController.class);
+    // Versions restart with the process, so the boot time keeps old ETags from matching new data
+    private static final String ETAG_PREFIX = Long.toString(System.currentTimeMillis(), 36) + "-";
+    // Browsers may keep tree responses but must revalidate them, which is a cheap 304 when unchanged
+    private static final CacheControl TREE_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
 
     @Autowired
-    public KnowledgeTreeController(KnowledgeTreeService knowledgeTreeService) {
+    public KnowledgeTreeController(KnowledgeTreeService knowledgeTreeService, KnowledgeTreeJsonWriter jsonWriter,
+                                   KnowledgeTreeTransferService transferService) {
         this.knowledgeTreeService = knowledgeTreeService;
+        this.jsonWriter = jsonWriter;
+        this.transferService = transferService;
     }
 
     @GetMapping("/roots")
-    public ResponseEntity<List<KnowledgeNode>> getRootNodes() {
-        List<KnowledgeNode> nodes = knowledgeTreeService.getRootNodes();
-        // Ensure children are loaded for root nodes
-        nodes.forEach(node -> {
-            if (node.getChildren() != null) {
-                node.getChildren().size(); // Force lazy loading
-            }
-        });
-        return ResponseEntity.ok(nodes);
+    public ResponseEntity<StreamingResponseBody> getRootNodes(WebRequest request) {
+        return conditional(request, knowledgeTreeService.getRootsVersion(),
+            () -> jsonWriter.summaries(knowledgeTreeService.getRootNodes()));
     }
 
     @GetMapping("/children/{parentId}")
-    public ResponseEntity<List<KnowledgeNode>> getChildren(@PathVariable Long parentId) {
-        List<KnowledgeNode> children = knowledgeTreeService.getChildren(parentId);
-        // Ensure children are loaded for each child node
-        children.forEach(node -> {
-            if (node.getChildren() != null) {
-                node.getChildren().size(); // Force lazy loading
-            }
-        });
-        return ResponseEntity.ok(children);
+    public ResponseEntity<StreamingResponseBody> getChildren(@PathVariable Long parentId, WebRequest request) {
+        return conditional(request, knowledgeTreeService.getChildrenVersion(parentId),
+            () -> jsonWriter.summaries(knowledgeTreeService.getChildren(parentId)));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<KnowledgeNode>> searchNodes(@RequestParam String query) {
-        List<KnowledgeNode> nodes = knowledgeTreeService.searchNodes(query);
-        // Ensure children are loaded for search results
-        nodes.forEach(node -> {
-            if (node.getChildren() != null) {
-                node.getChildren().size(); // Force lazy loading
-            }
-        });
-        return ResponseEntity.ok(nodes);
+    public ResponseEntity<List<KnowledgeNodeSummaryDTO>> searchNodes(@RequestParam String query,
+                                                                     @RequestParam(defaultValue = "20") int limit,
+                                                                     WebRequest request) {
+        return conditional(request, knowledgeTreeService.getSearchVersion(),
+            () -> knowledgeTreeService.searchNodes(query, limit));
+    }
+
+    @GetMapping("/{id}/subtree")
+    public ResponseEntity<StreamingResponseBody> getSubtree(@PathVariable Long id,
+                                                            @RequestParam(defaultValue = "5") int depth,
+                                                            WebRequest request) {
+        OptionalLong version = knowledgeTreeService.getSubtreeVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // Each depth is a different body, so it gets its own ETag
+        return conditional(request, version.getAsLong() + "-d" + depth, () -> knowledgeTreeService.getSubtree(id, depth)
+            .map(jsonWriter::subtree)
+            .orElse(null));
+    }
+
+    @GetMapping("/{id}/ancestors")
+    public ResponseEntity<List<KnowledgeNodeSummaryDTO>> getAncestors(@PathVariable Long id, WebRequest request) {
+        OptionalLong version = knowledgeTreeService.getAncestorsVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return conditional(request, version.getAsLong(), () -> knowledgeTreeService.getAncestors(id));
+    }
+
+    @GetMapping("/{id}/descendants/count")
+    public ResponseEntity<Map<String, Long>> countDescendants(@PathVariable Long id) {
+        return ResponseEntity.ok(Map.of("count", knowledgeTreeService.countDescendants(id)));
+    }
+
+    // Whole tree as NDJSON (one node per line), or as a JSON array with format=json
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTree(@RequestParam(defaultValue = "ndjson") String format) {
+        return export(null, format);
+    }
+
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> exportSubtree(@PathVariable Long id,
+                                                               @RequestParam(defaultValue = "ndjson") String format) {
+        if (knowledgeTreeService.getNode(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return export(id, format);
+    }
+
+    // Accepts what the export endpoints produce; the nodes are added under parentId, or as roots.
+    // Only problems with the input are the client's; anything else, e.g. a database failure,
+    // is left to become a 500 without its message.
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Map<String, Object>> importTree(@RequestParam(required = false) Long parentId,
+                                                          InputStream body) {
+        try {
+            return ResponseEntity.ok(Map.of("imported", transferService.importNodes(body, parentId)));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected knowledge tree import: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(Long rootId, String format) {
+        boolean json = "json".equalsIgnoreCase(format);
+        String filename = (rootId != null ? "knowledge-tree-" + rootId : "knowledge-tree") + (json ? ".json" : ".ndjson");
+        return ResponseEntity.ok()
+            .contentType(json ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .body(out -> transferService.export(rootId, json, out));
+    }
+
+    @GetMapping("/snapshot/verify")
+    public ResponseEntity<Map<String, Object>> verifySnapshot() {
+        return ResponseEntity.ok(knowledgeTreeService.verifySnapshot());
+    }
+
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<TreeNodeDTO> getNodeDetail(@PathVariable Long id, WebRequest request) {
+        OptionalLong version = knowledgeTreeService.getNodeVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return conditional(request, version.getAsLong(), () -> knowledgeTreeService.getNodeDetail(id).orElse(null));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<KnowledgeNode> getNode(@PathVariable Long id) {
-        return knowledgeTreeService.getNode(id)
-            .map(node -> {
-                // Ensure children are loaded for the node
-                if (node.getChildren() != null) {
-                    node.getChildren().size(); // Force lazy loading
-                }
-                return ResponseEntity.ok(node);
-            })
-            .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<KnowledgeNodeSummaryDTO> getNode(@PathVariable Long id, WebRequest request) {
+        OptionalLong version = knowledgeTreeService.getNodeVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return conditional(request, version.getAsLong(), () -> knowledgeTreeService.getNode(id).orElse(null));
+    }
+
+    // Answers If-None-Match from the version alone, so a 304 never builds the body. The version
+    // is read before the body, which can then only be newer than its ETag, never older.
+    // checkNotModified writes the ETag header itself, for both outcomes.
+    private <T> ResponseEntity<T> conditional(WebRequest request, long version, Supplier<T> body) {
+        return conditional(request, Long.toString(version), body);
+    }
+
+    private <T> ResponseEntity<T> conditional(WebRequest request, String version, Supplier<T> body) {
+        if (request.checkNotModified(ETAG_PREFIX + version)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(TREE_CACHE_CONTROL)
+                .build();
+        }
+        T payload = body.get();
+        if (payload == null) {
+            // Removed between the version lookup and the read
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+            .cacheControl(TREE_CACHE_CONTROL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(payload);
     }
 
     @PostMapping
-    public ResponseEntity<KnowledgeNode> createNode(@RequestBody KnowledgeNodeDTO nodeDTO) {
+    public ResponseEntity<TreeNodeDTO> createNode(@RequestBody KnowledgeNodeDTO nodeDTO) {
         try {
             KnowledgeNode newNode;
             if (nodeDTO.getParent() != null && nodeDTO.getParent().getId() != null) {
@@ -83,23 +187,24 @@ public class KnowledgeTreeController {
             } else {
                 newNode = knowledgeTreeService.createNode(nodeDTO.getName());
             }
-            return ResponseEntity.ok(newNode);
+            return knowledgeTreeService.getNodeDetail(newNode.getId())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.internalServerError().build());
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<KnowledgeNode> updateNode(@PathVariable Long id, @RequestBody KnowledgeNode node) {
+    public ResponseEntity<TreeNodeDTO> updateNode(@PathVariable Long id, @RequestBody KnowledgeNode node) {
         try {
             logger.info("Updating node with ID: {}", id);
             KnowledgeNode updatedNode = knowledgeTreeService.updateNode(id, node);
-            // Ensure children are loaded for the updated node
-            if (updatedNode.getChildren() != null) {
-                updatedNode.getChildren().size(); // Force lazy loading
-            }
             logger.info("Successfully updated node: {}", updatedNode.getName());
-            return ResponseEntity.ok(updatedNode);
+            // The snapshot is refreshed on commit, so it already reflects the update
+            return knowledgeTreeService.getNodeDetail(updatedNode.getId())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.internalServerError().build());
         } catch (RuntimeException e) {
             logger.error("Error updating node: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -107,8 +212,8 @@ public class KnowledgeTreeController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteNode(@PathVariable Long id) {
-        knowledgeTreeService.deleteNode(id);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Map<String, Integer>> deleteNode(@PathVariable Long id) {
+        int deleted = knowledgeTreeService.deleteNode(id);
+        return ResponseEntity.ok(Map.of("deleted", deleted));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.optimize25.backend.controller;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.optimize25.backend.dto.KnowledgeNodeSummaryDTO;
+import com.optimize25.backend.dto.SubtreeNodeDTO;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+// Writes tree payloads field by field straight to the response stream, so large listings
+// and subtrees are never materialized as an intermediate JSON tree or String.
+@Component
+public class KnowledgeTreeJsonWriter {
+
+    private final ObjectMapper objectMapper;
+
+    public KnowledgeTreeJsonWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public StreamingResponseBody summaries(List<KnowledgeNodeSummaryDTO> nodes) {
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+                generator.writeStartArray();
+                for (KnowledgeNodeSummaryDTO node : nodes) {
+                    writeSummary(generator, node);
+                }
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    public StreamingResponseBody subtree(SubtreeNodeDTO root) {
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+                writeSubtree(generator, root);
+            }
+        };
+    }
+
+    private void writeSummary(JsonGenerator generator, KnowledgeNodeSummaryDTO node) throws IOException {
+        generator.writeStartObject();
+        writeLong(generator, "id", node.getId());
+        generator.writeStringField("name", node.getName());
+        generator.writeStringField("description", node.getDescription());
+        writeInteger(generator, "level", node.getLevel());
+        writeInteger(generator, "nodeOrder", node.getNodeOrder());
+        writeLong(generator, "parentId", node.getParentId());
+        generator.writeNumberField("childCount", node.getChildCount());
+        generator.writeEndObject();
+    }
+
+    // Iterative walk so a deep subtree cannot overflow the request thread's stack
+    private void writeSubtree(JsonGenerator generator, SubtreeNodeDTO root) throws IOException {
+        Deque<Iterator<SubtreeNodeDTO>> stack = new ArrayDeque<>();
+        openNode(generator, root);
+        stack.push(root.getChildren().iterator());
+        while (!stack.isEmpty()) {
+            Iterator<SubtreeNodeDTO> siblings = stack.peek();
+            if (siblings.hasNext()) {
+                SubtreeNodeDTO node = siblings.next();
+                openNode(generator, node);
+                stack.push(node.getChildren().iterator());
+            } else {
+                stack.pop();
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        }
+    }
+
+    private void openNode(JsonGenerator generator, SubtreeNodeDTO node) throws IOException {
+        generator.writeStartObject();
+        writeLong(generator, "id", node.getId());
+        generator.writeStringField("name", node.getName());
+        generator.writeStringField("description", node.getDescription());
+        writeInteger(generator, "level", node.getLevel());
+        writeInteger(generator, "nodeOrder", node.getNodeOrder());
+        writeLong(generator, "parentId", node.getParentId());
+        generator.writeNumberField("childCount", node.getChildCount());
+        generator.writeArrayFieldStart("children");
+    }
+
+    private static void writeLong(JsonGenerator generator, String field, Long value) throws IOException {
+        if (value != null) {
+            generator.writeNumberField(field, value);
+        } else {
+            generator.writeNullField(field);
+        }
+    }
+
+    private static void writeInteger(JsonGenerator generator, String field, Integer value) throws IOException {
+        if (value != null) {
+            generator.writeNumberField(field, value);
+        } else {
+            generator.writeNullField(field);
+        }
+    }
+}
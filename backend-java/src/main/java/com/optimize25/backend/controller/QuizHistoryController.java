@@ -1,13 +1,21 @@
 package com.optimize25.backend.controller;
 
+import com.optimize25.backend.dto.QuizHistoryPageDTO;
 import com.optimize25.backend.dto.QuizResultDTO;
-import com.optimize25.backend.model.QuizResult;
-import com.optimize25.backend.model.User;
+import com.optimize25.backend.dto.QuizTopicStatsDTO;
+import com.optimize25.backend.model.QuizTopicStats;
 import com.optimize25.backend.repository.QuizResultRepository;
+import com.optimize25.backend.repository.QuizTopicStatsRepository;
 import com.optimize25.backend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -15,41 +23,95 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/evaluate")
 public class QuizHistoryController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    // Stand-ins for an open end of the time window or cursor, so each query has one fixed shape
+    private static final LocalDateTime NO_BOUND_BEFORE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime NO_BOUND_AFTER = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     @Autowired
     private QuizResultRepository quizResultRepository;
 
+    @Autowired
+    private QuizTopicStatsRepository quizTopicStatsRepository;
+
     @Autowired
     private UserService userService;
 
+    // Newest first, limit results per page; follow nextCursor with ?before= for older results.
+    // from (inclusive) and to (exclusive) restrict the page to a time window.
     @GetMapping("/history")
-    public ResponseEntity<List<QuizResultDTO>> getAllHistory() {
-        User guestUser = userService.getOrCreateGuestUser();
-        List<QuizResult> history = quizResultRepository.findByUserOrderByCreatedAtDesc(guestUser);
-        List<QuizResultDTO> dtos = history.stream()
-            .map(result -> new QuizResultDTO(
-                result.getId(),
-                result.getTopic(),
-                result.getScore(),
-                result.getCreatedAt(),
-                result.getUser().getUsername()
-            ))
-            .collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<QuizHistoryPageDTO> getAllHistory(
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return historyPage(null, before, limit, from, to);
     }
 
     @GetMapping("/history/{topic}")
-    public ResponseEntity<List<QuizResultDTO>> getHistoryByTopic(@PathVariable String topic) {
-        User guestUser = userService.getOrCreateGuestUser();
-        List<QuizResult> history = quizResultRepository.findByUserAndTopicOrderByCreatedAtDesc(guestUser, topic);
-        List<QuizResultDTO> dtos = history.stream()
-            .map(result -> new QuizResultDTO(
-                result.getId(),
-                result.getTopic(),
-                result.getScore(),
-                result.getCreatedAt(),
-                result.getUser().getUsername()
-            ))
+    public ResponseEntity<QuizHistoryPageDTO> getHistoryByTopic(
+            @PathVariable String topic,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return historyPage(topic, before, limit, from, to);
+    }
+
+    // Per-topic totals, most recently attempted first, read from quiz_topic_stats
+    @GetMapping("/stats")
+    public ResponseEntity<List<QuizTopicStatsDTO>> getAllStats() {
+        Long userId = userService.getGuestUserId();
+        List<QuizTopicStatsDTO> dtos = quizTopicStatsRepository.findByUserIdOrderByLastAttemptAtDesc(userId)
+            .stream()
+            .map(QuizTopicStatsDTO::new)
             .collect(Collectors.toList());
         return ResponseEntity.ok(dtos);
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/stats/{topic}")
+    public ResponseEntity<QuizTopicStatsDTO> getStatsByTopic(@PathVariable String topic) {
+        Long userId = userService.getGuestUserId();
+        return quizTopicStatsRepository.findById(new QuizTopicStats.Key(userId, topic))
+            .map(stats -> ResponseEntity.ok(new QuizTopicStatsDTO(stats)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<QuizHistoryPageDTO> historyPage(String topic, String before, int limit,
+                                                           LocalDateTime from, LocalDateTime to) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        LocalDateTime beforeAt = NO_BOUND_AFTER;
+        Long beforeId = Long.MAX_VALUE;
+        if (before != null) {
+            try {
+                String[] cursor = new String(Base64.getUrlDecoder().decode(before), StandardCharsets.UTF_8).split("\\|");
+                beforeAt = LocalDateTime.parse(cursor[0]);
+                beforeId = Long.parseLong(cursor[1]);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        Long userId = userService.getGuestUserId();
+        LocalDateTime windowStart = from != null ? from : NO_BOUND_BEFORE;
+        LocalDateTime windowEnd = to != null ? to : NO_BOUND_AFTER;
+        // One extra row tells whether another page follows
+        Pageable page = PageRequest.of(0, limit + 1);
+        List<QuizResultDTO> rows = topic == null
+            ? quizResultRepository.findHistoryPage(userId, windowStart, windowEnd, beforeAt, beforeId, page)
+            : quizResultRepository.findTopicHistoryPage(userId, topic, windowStart, windowEnd,
+                beforeAt, beforeId, page);
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            QuizResultDTO last = rows.get(limit - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (last.getCreatedAt() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+        return ResponseEntity.ok(new QuizHistoryPageDTO(rows, nextCursor));
+    }
+}
@@ -0,0 +1,63 @@
+package com.optimize25.backend.dto;
+
+// Flat, association-free view of a knowledge_nodes row used to build the tree snapshot
+public class KnowledgeNodeRow {
+    private final Long id;
+    private final Long parentId;
+    private final String name;
+    private final String description;
+    private final String content;
+    private final String examples;
+    private final String references;
+    private final Integer level;
+    private final Integer nodeOrder;
+
+    public KnowledgeNodeRow(Long id, Long parentId, String name, String description, String content,
+                            String examples, String references, Integer level, Integer nodeOrder) {
+        this.id = id;
+        this.parentId = parentId;
+        this.name = name;
+        this.description = description;
+        this.content = content;
+        this.examples = examples;
+        this.references = references;
+        this.level = level;
+        this.nodeOrder = nodeOrder;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public String getExamples() {
+        return examples;
+    }
+
+    public String getReferences() {
+        return references;
+    }
+
+    public Integer getLevel() {
+        return level;
+    }
+
+    public Integer getNodeOrder() {
+        return nodeOrder;
+    }
+}
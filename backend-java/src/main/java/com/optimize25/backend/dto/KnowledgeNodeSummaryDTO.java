@@ -0,0 +1,51 @@
+package com.optimize25.backend.dto;
+
+// What the tree view needs to draw a node; the large text fields live on TreeNodeDTO
+public class KnowledgeNodeSummaryDTO {
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final Integer level;
+    private final Integer nodeOrder;
+    private final Long parentId;
+    private final int childCount;
+
+    public KnowledgeNodeSummaryDTO(TreeNodeDTO node) {
+        this.id = node.getId();
+        this.name = node.getName();
+        this.description = node.getDescription();
+        this.level = node.getLevel();
+        this.nodeOrder = node.getNodeOrder();
+        this.parentId = node.getParentId();
+        this.childCount = node.getChildCount();
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Integer getLevel() {
+        return level;
+    }
+
+    public Integer getNodeOrder() {
+        return nodeOrder;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public int getChildCount() {
+        return childCount;
+    }
+}
@@ -0,0 +1,65 @@
+package com.optimize25.backend.dto;
+
+import com.optimize25.backend.model.PopulationJob;
+import java.time.LocalDateTime;
+
+public class PopulationJobDTO {
+    private final Long id;
+    private final String nodeName;
+    private final String status;
+    private final int progress;
+    private final String error;
+    private final Long nodeId;
+    private final Integer createdNodes;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    public PopulationJobDTO(PopulationJob job) {
+        this.id = job.getId();
+        this.nodeName = job.getNodeName();
+        this.status = job.getStatus().name();
+        this.progress = job.getProgress();
+        this.error = job.getError();
+        this.nodeId = job.getNodeId();
+        this.createdNodes = job.getCreatedNodes();
+        this.createdAt = job.getCreatedAt();
+        this.updatedAt = job.getUpdatedAt();
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Long getNodeId() {
+        return nodeId;
+    }
+
+    public Integer getCreatedNodes() {
+        return createdNodes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
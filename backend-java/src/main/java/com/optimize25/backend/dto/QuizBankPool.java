@@ -0,0 +1,12 @@
+package com.optimize25.backend.dto;
+
+import java.time.LocalDateTime;
+
+// Size and age of one node's question pool
+public interface QuizBankPool {
+    Long getNodeId();
+
+    Long getQuestions();
+
+    LocalDateTime getNewestAt();
+}
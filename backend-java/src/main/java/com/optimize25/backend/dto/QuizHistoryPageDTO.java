@@ -0,0 +1,23 @@
+package com.optimize25.backend.dto;
+
+import java.util.List;
+
+public class QuizHistoryPageDTO {
+    private final List<QuizResultDTO> items;
+    // Pass back as ?before= for the next page; null on the last page
+    private final String nextCursor;
+
+    public QuizHistoryPageDTO(List<QuizResultDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<QuizResultDTO> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,53 @@
+package com.optimize25.backend.dto;
+
+import com.optimize25.backend.model.QuizTopicStats;
+import java.time.LocalDateTime;
+
+public class QuizTopicStatsDTO {
+    private String topic;
+    private int attempts;
+    private double bestScore;
+    private double averageScore;
+    private double lastScore;
+    private LocalDateTime lastAttemptAt;
+    private int currentStreak;
+
+    public QuizTopicStatsDTO(QuizTopicStats stats) {
+        this.topic = stats.getTopic();
+        this.attempts = stats.getAttempts();
+        this.bestScore = stats.getBestScore();
+        this.averageScore = stats.getAverageScore();
+        this.lastScore = stats.getLastScore();
+        this.lastAttemptAt = stats.getLastAttemptAt();
+        this.currentStreak = stats.getCurrentStreak();
+    }
+
+    // Getters
+    public String getTopic() {
+        return topic;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public double getBestScore() {
+        return bestScore;
+    }
+
+    public double getAverageScore() {
+        return averageScore;
+    }
+
+    public double getLastScore() {
+        return lastScore;
+    }
+
+    public LocalDateTime getLastAttemptAt() {
+        return lastAttemptAt;
+    }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+}
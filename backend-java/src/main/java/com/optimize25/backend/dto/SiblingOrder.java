@@ -0,0 +1,8 @@
+package com.optimize25.backend.dto;
+
+// Id and rank of one sibling, used to place a node without loading full entities
+public interface SiblingOrder {
+    Long getId();
+
+    Integer getNodeOrder();
+}
@@ -0,0 +1,62 @@
+package com.optimize25.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SubtreeNodeDTO {
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final Integer level;
+    private final Integer nodeOrder;
+    private final Long parentId;
+    private final int childCount;
+    private final List<SubtreeNodeDTO> children = new ArrayList<>();
+
+    public SubtreeNodeDTO(SubtreeRow row) {
+        this.id = row.getId();
+        this.name = row.getName();
+        this.description = row.getDescription();
+        this.level = row.getLevel();
+        this.nodeOrder = row.getNodeOrder();
+        this.parentId = row.getParentId();
+        this.childCount = row.getChildCount() != null ? row.getChildCount() : 0;
+    }
+
+    public void addChild(SubtreeNodeDTO child) {
+        children.add(child);
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Integer getLevel() {
+        return level;
+    }
+
+    public Integer getNodeOrder() {
+        return nodeOrder;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public int getChildCount() {
+        return childCount;
+    }
+
+    public List<SubtreeNodeDTO> getChildren() {
+        return children;
+    }
+}
@@ -0,0 +1,21 @@
+package com.optimize25.backend.dto;
+
+// Native-query projection for one row of a recursive subtree fetch
+public interface SubtreeRow {
+    Long getId();
+
+    Long getParentId();
+
+    String getName();
+
+    String getDescription();
+
+    Integer getLevel();
+
+    Integer getNodeOrder();
+
+    Integer getDepth();
+
+    // Counts all direct children, including those below the depth limit
+    Integer getChildCount();
+}
@@ -0,0 +1,74 @@
+package com.optimize25.backend.dto;
+
+import java.util.List;
+
+public class TreeNodeDTO {
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final String content;
+    private final String examples;
+    private final String references;
+    private final Integer level;
+    private final Integer nodeOrder;
+    private final Long parentId;
+    private final List<Long> childIds;
+
+    public TreeNodeDTO(KnowledgeNodeRow row, List<Long> childIds) {
+        this.id = row.getId();
+        this.name = row.getName();
+        this.description = row.getDescription();
+        this.content = row.getContent();
+        this.examples = row.getExamples();
+        this.references = row.getReferences();
+        this.level = row.getLevel();
+        this.nodeOrder = row.getNodeOrder();
+        this.parentId = row.getParentId();
+        this.childIds = List.copyOf(childIds);
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public String getExamples() {
+        return examples;
+    }
+
+    public String getReferences() {
+        return references;
+    }
+
+    public Integer getLevel() {
+        return level;
+    }
+
+    public Integer getNodeOrder() {
+        return nodeOrder;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public List<Long> getChildIds() {
+        return childIds;
+    }
+
+    public int getChildCount() {
+        return childIds.size();
+    }
+}
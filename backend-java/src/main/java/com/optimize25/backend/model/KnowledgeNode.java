@@ -11,8 +11,15 @@ import java.util.stream.Collectors;
 @Entity
 @Table(name = "knowledge_nodes", schema = "public")
 public class KnowledgeNode {
+    // Spacing between sibling node_order values, leaving room to insert without renumbering
+    public static final int ORDER_GAP = 1024;
+
+    // Ids come from the table's sequence 50 at a time (it increments by 50, see V1__create_schema.sql), so
+    // new nodes get their id without an INSERT each and can be written in JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "knowledge_nodes_id_seq")
+    @SequenceGenerator(name = "knowledge_nodes_id_seq", sequenceName = "knowledge_nodes_id_seq",
+                       schema = "public", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -45,6 +52,11 @@ public class KnowledgeNode {
     @Column(name = "node_order")
     private Integer nodeOrder;
 
+    // Materialized ancestry: ids of all ancestors from the root down, e.g. "/6/7/" (roots have "/")
+    @Column(length = 1024)
+    @JsonIgnore
+    private String path;
+
     @Transient
     private List<Long> childIds;
 
@@ -132,6 +144,26 @@ public class KnowledgeNode {
         this.nodeOrder = nodeOrder;
     }
 
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    // Every descendant's path starts with this prefix
+    @JsonIgnore
+    public String getDescendantPathPrefix() {
+        return (path != null ? path : "/") + id + "/";
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updatePath() {
+        path = parent != null ? parent.getDescendantPathPrefix() : "/";
+    }
+
     public List<Long> getChildIds() {
         if (childIds == null) {
             childIds = children.stream()
@@ -0,0 +1,124 @@
+package com.optimize25.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "population_jobs")
+public class PopulationJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "node_name", nullable = false)
+    private String nodeName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PopulationJobStatus status;
+
+    @Column(nullable = false)
+    private int progress;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    // The populated node and how many children were added, once the job completes
+    @Column(name = "node_id")
+    private Long nodeId;
+
+    @Column(name = "created_nodes")
+    private Integer createdNodes;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public PopulationJob() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = createdAt;
+    }
+
+    public PopulationJob(String nodeName) {
+        this();
+        this.nodeName = nodeName;
+        setStatus(PopulationJobStatus.QUEUED);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    public void setNodeName(String nodeName) {
+        this.nodeName = nodeName;
+    }
+
+    public PopulationJobStatus getStatus() {
+        return status;
+    }
+
+    // Moving to a new stage also moves progress and the update time along with it
+    public void setStatus(PopulationJobStatus status) {
+        this.status = status;
+        this.progress = status.getProgress();
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public void setProgress(int progress) {
+        this.progress = progress;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Long getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(Long nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public Integer getCreatedNodes() {
+        return createdNodes;
+    }
+
+    public void setCreatedNodes(Integer createdNodes) {
+        this.createdNodes = createdNodes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,25 @@
+package com.optimize25.backend.model;
+
+// Stages of a populate job, in order, with the progress each one represents
+public enum PopulationJobStatus {
+    QUEUED(0),
+    CLASSIFYING(10),
+    GENERATING(30),
+    SAVING(80),
+    COMPLETED(100),
+    FAILED(100);
+
+    private final int progress;
+
+    PopulationJobStatus(int progress) {
+        this.progress = progress;
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
@@ -0,0 +1,77 @@
+package com.optimize25.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One pre-generated question in a knowledge node's quiz pool
+@Entity
+@Table(name = "quiz_bank_questions")
+public class QuizBankQuestion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "node_id", nullable = false)
+    private Long nodeId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String question;
+
+    // The options as a JSON array
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String options;
+
+    @Column(name = "correct_answer", nullable = false, columnDefinition = "TEXT")
+    private String correctAnswer;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(Long nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getQuestion() {
+        return question;
+    }
+
+    public void setQuestion(String question) {
+        this.question = question;
+    }
+
+    public String getOptions() {
+        return options;
+    }
+
+    public void setOptions(String options) {
+        this.options = options;
+    }
+
+    public String getCorrectAnswer() {
+        return correctAnswer;
+    }
+
+    public void setCorrectAnswer(String correctAnswer) {
+        this.correctAnswer = correctAnswer;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,43 @@
+package com.optimize25.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// How many quizzes have been asked for a knowledge node
+@Entity
+@Table(name = "quiz_node_visits")
+public class QuizNodeVisit {
+    @Id
+    @Column(name = "node_id")
+    private Long nodeId;
+
+    @Column(nullable = false)
+    private Long visits;
+
+    @Column(name = "last_visited_at", nullable = false)
+    private LocalDateTime lastVisitedAt;
+
+    public Long getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(Long nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public Long getVisits() {
+        return visits;
+    }
+
+    public void setVisits(Long visits) {
+        this.visits = visits;
+    }
+
+    public LocalDateTime getLastVisitedAt() {
+        return lastVisitedAt;
+    }
+
+    public void setLastVisitedAt(LocalDateTime lastVisitedAt) {
+        this.lastVisitedAt = lastVisitedAt;
+    }
+}
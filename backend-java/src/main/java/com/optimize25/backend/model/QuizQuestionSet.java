@@ -0,0 +1,77 @@
+package com.optimize25.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One generated quiz for a topic, kept so cached quizzes survive restarts
+@Entity
+@Table(name = "quiz_questions")
+public class QuizQuestionSet {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "topic_key", nullable = false)
+    private String topicKey;
+
+    @Column(nullable = false)
+    private String topic;
+
+    // The question list as JSON; it is only ever read and written whole
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String questions;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public QuizQuestionSet() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public QuizQuestionSet(String topicKey, String topic, String questions) {
+        this();
+        this.topicKey = topicKey;
+        this.topic = topic;
+        this.questions = questions;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTopicKey() {
+        return topicKey;
+    }
+
+    public void setTopicKey(String topicKey) {
+        this.topicKey = topicKey;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getQuestions() {
+        return questions;
+    }
+
+    public void setQuestions(String questions) {
+        this.questions = questions;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
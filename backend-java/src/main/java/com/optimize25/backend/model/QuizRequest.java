@@ -2,6 +2,8 @@ package com.optimize25.backend.model;
 
 public class QuizRequest {
     private String topic;
+    // Optional; without it the topic is matched to a knowledge node by name
+    private Long nodeId;
 
     public String getTopic() {
         return topic;
@@ -10,4 +12,12 @@ public class QuizRequest {
     public void setTopic(String topic) {
         this.topic = topic;
     }
-} 
\ No newline at end of file
+
+    public Long getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(Long nodeId) {
+        this.nodeId = nodeId;
+    }
+}
\ No newline at end of file
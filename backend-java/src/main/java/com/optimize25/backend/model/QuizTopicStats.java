@@ -0,0 +1,128 @@
+package com.optimize25.backend.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Running totals of a user's quiz results on one topic, so reading them never scans the history
+@Entity
+@Table(name = "quiz_topic_stats")
+@IdClass(QuizTopicStats.Key.class)
+public class QuizTopicStats {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    private String topic;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "best_score", nullable = false)
+    private double bestScore;
+
+    @Column(name = "average_score", nullable = false)
+    private double averageScore;
+
+    @Column(name = "last_score", nullable = false)
+    private double lastScore;
+
+    @Column(name = "last_attempt_at", nullable = false)
+    private LocalDateTime lastAttemptAt;
+
+    // Consecutive latest attempts that passed
+    @Column(name = "current_streak", nullable = false)
+    private int currentStreak;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public double getBestScore() {
+        return bestScore;
+    }
+
+    public void setBestScore(double bestScore) {
+        this.bestScore = bestScore;
+    }
+
+    public double getAverageScore() {
+        return averageScore;
+    }
+
+    public void setAverageScore(double averageScore) {
+        this.averageScore = averageScore;
+    }
+
+    public double getLastScore() {
+        return lastScore;
+    }
+
+    public void setLastScore(double lastScore) {
+        this.lastScore = lastScore;
+    }
+
+    public LocalDateTime getLastAttemptAt() {
+        return lastAttemptAt;
+    }
+
+    public void setLastAttemptAt(LocalDateTime lastAttemptAt) {
+        this.lastAttemptAt = lastAttemptAt;
+    }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public void setCurrentStreak(int currentStreak) {
+        this.currentStreak = currentStreak;
+    }
+
+    public static class Key implements Serializable {
+        private Long userId;
+        private String topic;
+
+        public Key() {
+        }
+
+        public Key(Long userId, String topic) {
+            this.userId = userId;
+            this.topic = topic;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(userId, key.userId) && Objects.equals(topic, key.topic);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, topic);
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.optimize25.backend.repository;
 
+import com.optimize25.backend.dto.KnowledgeNodeRow;
+import com.optimize25.backend.dto.SiblingOrder;
+import com.optimize25.backend.dto.SubtreeRow;
 import com.optimize25.backend.model.KnowledgeNode;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -21,14 +25,127 @@ public interface KnowledgeNodeRepository extends JpaRepository<KnowledgeNode, Lo
     
     List<KnowledgeNode> findByLevel(int level);
     
-    @Query("SELECT n FROM KnowledgeNode n WHERE LOWER(n.name) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<KnowledgeNode> findByNameContainingIgnoreCase(@Param("query") String query);
-
     @Query("SELECT MAX(kn.nodeOrder) FROM KnowledgeNode kn WHERE kn.parent.id = :parentId")
     Integer findMaxNodeOrderByParentId(@Param("parentId") Long parentId);
 
+    @Query("SELECT MAX(kn.nodeOrder) FROM KnowledgeNode kn WHERE kn.parent IS NULL")
+    Integer findMaxRootNodeOrder();
+
+    @Query("SELECT n.id AS id, n.nodeOrder AS nodeOrder FROM KnowledgeNode n " +
+           "WHERE n.parent.id = :parentId ORDER BY n.nodeOrder ASC NULLS FIRST, n.id")
+    List<SiblingOrder> findChildOrders(@Param("parentId") Long parentId);
+
+    @Query("SELECT n.id AS id, n.nodeOrder AS nodeOrder FROM KnowledgeNode n " +
+           "WHERE n.parent IS NULL ORDER BY n.nodeOrder ASC NULLS FIRST, n.id")
+    List<SiblingOrder> findRootOrders();
+
     @Query("SELECT k.name FROM KnowledgeNode k WHERE k.parent.id = :parentId")
     List<String> findChildrenNamesByParentId(@Param("parentId") Long parentId);
 
     Optional<KnowledgeNode> findByNameAndParent(String name, KnowledgeNode parent);
-} 
\ No newline at end of file
+
+    @Query("SELECT new com.optimize25.backend.dto.KnowledgeNodeRow(n.id, p.id, n.name, n.description, n.content, " +
+           "n.examples, n.references, n.level, n.nodeOrder) FROM KnowledgeNode n LEFT JOIN n.parent p")
+    List<KnowledgeNodeRow> findAllRows();
+
+    // Whole subtree in one round-trip, parents before children and siblings in display order
+    @Query(value = "WITH RECURSIVE subtree AS (" +
+                   "  SELECT n.id, n.parent_id, n.name, n.description, n.level, n.node_order, 0 AS depth" +
+                   "  FROM public.knowledge_nodes n WHERE n.id = :rootId" +
+                   "  UNION ALL" +
+                   "  SELECT c.id, c.parent_id, c.name, c.description, c.level, c.node_order, s.depth + 1" +
+                   "  FROM public.knowledge_nodes c" +
+                   "  JOIN subtree s ON c.parent_id = s.id WHERE s.depth < :maxDepth" +
+                   ") " +
+                   "SELECT s.id AS \"id\", s.parent_id AS \"parentId\", s.name AS \"name\", " +
+                   "s.description AS \"description\", s.level AS \"level\", s.node_order AS \"nodeOrder\", " +
+                   "s.depth AS \"depth\", " +
+                   "(SELECT CAST(COUNT(*) AS INTEGER) FROM public.knowledge_nodes k WHERE k.parent_id = s.id) AS \"childCount\" " +
+                   "FROM subtree s ORDER BY s.depth, s.node_order NULLS FIRST, s.id",
+           nativeQuery = true)
+    List<SubtreeRow> findSubtree(@Param("rootId") Long rootId, @Param("maxDepth") int maxDepth);
+
+    // Path ranges rely on the "C" collation of knowledge_nodes.path: '/' sorts just below '0',
+    // so every path starting with prefix P falls in [P, P with its trailing '/' replaced by '0')
+    @Query("SELECT n FROM KnowledgeNode n WHERE n.path >= :lower AND n.path < :upper ORDER BY n.path, n.nodeOrder")
+    List<KnowledgeNode> findByPathRange(@Param("lower") String lower, @Param("upper") String upper);
+
+    default List<KnowledgeNode> findDescendants(KnowledgeNode node) {
+        String prefix = node.getDescendantPathPrefix();
+        return findByPathRange(prefix, pathUpperBound(prefix));
+    }
+
+    @Query(value = "SELECT COUNT(*) FROM public.knowledge_nodes n " +
+                   "JOIN public.knowledge_nodes d ON d.path >= n.path || n.id || '/' AND d.path < n.path || n.id || '0' " +
+                   "WHERE n.id = :id",
+           nativeQuery = true)
+    long countDescendants(@Param("id") Long id);
+
+    @Query(value = "SELECT a.id FROM public.knowledge_nodes n " +
+                   "JOIN public.knowledge_nodes a ON a.id = ANY (CAST(string_to_array(trim(BOTH '/' FROM n.path), '/') AS BIGINT[])) " +
+                   "WHERE n.id = :id ORDER BY a.level",
+           nativeQuery = true)
+    List<Long> findAncestorIds(@Param("id") Long id);
+
+    // Re-roots every descendant path under a moved node and shifts their levels in one statement
+    @Modifying
+    @Query(value = "UPDATE public.knowledge_nodes SET path = :newPrefix || substring(path FROM :oldPrefixLength + 1), " +
+                   "level = level + :levelDelta WHERE path >= :oldPrefix AND path < :oldUpper",
+           nativeQuery = true)
+    int moveDescendantsInRange(@Param("oldPrefix") String oldPrefix, @Param("oldUpper") String oldUpper,
+                               @Param("oldPrefixLength") int oldPrefixLength, @Param("newPrefix") String newPrefix,
+                               @Param("levelDelta") int levelDelta);
+
+    // A single statement, so the self-referencing parent FK is only checked once the whole subtree is gone
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM public.knowledge_nodes WHERE id = :id OR (path >= :lower AND path < :upper)",
+           nativeQuery = true)
+    int deleteSubtreeInRange(@Param("id") Long id, @Param("lower") String lower, @Param("upper") String upper);
+
+    default int deleteSubtree(KnowledgeNode node) {
+        String prefix = node.getDescendantPathPrefix();
+        return deleteSubtreeInRange(node.getId(), prefix, pathUpperBound(prefix));
+    }
+
+    // Respaces all siblings except one (or all of them, when excludedId is null) to multiples of
+    // the gap, keeping their current order
+    @Modifying
+    @Query(value = "UPDATE public.knowledge_nodes k SET node_order = r.position * :gap FROM (" +
+                   "  SELECT id, row_number() OVER (ORDER BY node_order NULLS FIRST, id) AS position" +
+                   "  FROM public.knowledge_nodes" +
+                   "  WHERE (parent_id = :parentId OR (CAST(:parentId AS BIGINT) IS NULL AND parent_id IS NULL))" +
+                   "    AND (CAST(:excludedId AS BIGINT) IS NULL OR id <> :excludedId)" +
+                   ") r WHERE k.id = r.id",
+           nativeQuery = true)
+    int rebalanceChildren(@Param("parentId") Long parentId, @Param("excludedId") Long excludedId,
+                          @Param("gap") int gap);
+
+    // The rank to append count new siblings after, one gap apart, under parentId (null for roots).
+    // If the last sibling's rank leaves no room for them, the siblings are respaced first; if even
+    // that leaves too little room, IllegalArgumentException.
+    default int appendBaseRank(Long parentId, long count) {
+        Integer maxOrder = parentId != null ? findMaxNodeOrderByParentId(parentId) : findMaxRootNodeOrder();
+        int base = maxOrder != null ? maxOrder : 0;
+        if (fitsRank(base, count)) {
+            return base;
+        }
+        long respaced = (long) rebalanceChildren(parentId, null, KnowledgeNode.ORDER_GAP) * KnowledgeNode.ORDER_GAP;
+        if (!fitsRank(respaced, count)) {
+            throw new IllegalArgumentException("No room to rank " + count + " more nodes under " +
+                (parentId != null ? "node " + parentId : "the roots"));
+        }
+        return (int) respaced;
+    }
+
+    static boolean fitsRank(long base, long count) {
+        return base + count * KnowledgeNode.ORDER_GAP < Integer.MAX_VALUE;
+    }
+
+    default int moveDescendants(String oldPrefix, String newPrefix, int levelDelta) {
+        return moveDescendantsInRange(oldPrefix, pathUpperBound(oldPrefix), oldPrefix.length(), newPrefix, levelDelta);
+    }
+
+    static String pathUpperBound(String prefix) {
+        return prefix.substring(0, prefix.length() - 1) + "0";
+    }
+}
@@ -0,0 +1,29 @@
+package com.optimize25.backend.repository;
+
+import com.optimize25.backend.model.PopulationJob;
+import com.optimize25.backend.model.PopulationJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PopulationJobRepository extends JpaRepository<PopulationJob, Long> {
+    List<PopulationJob> findByStatusIn(Collection<PopulationJobStatus> statuses);
+
+    // Fails the job only if, in this one statement, it is still unfinished and no live lease
+    // covers it. A worker saves its final status before releasing the lease, so a job that has
+    // just finished is seen either as finished or as still leased, never as abandoned.
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE public.population_jobs j SET status = 'FAILED', progress = 100, error = :error, " +
+                   "updated_at = LOCALTIMESTAMP WHERE j.id = :jobId AND j.status NOT IN ('COMPLETED', 'FAILED') " +
+                   "AND NOT EXISTS (SELECT 1 FROM public.population_leases l " +
+                   "  WHERE l.job_id = j.id AND l.expires_at >= LOCALTIMESTAMP)",
+           nativeQuery = true)
+    int failIfAbandoned(@Param("jobId") Long jobId, @Param("error") String error);
+}
@@ -0,0 +1,57 @@
+package com.optimize25.backend.repository;
+
+import com.optimize25.backend.model.PopulationLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Optional;
+
+// Expiry is always computed from the database clock, so instances with skewed clocks agree
+@Repository
+public interface PopulationLeaseRepository extends JpaRepository<PopulationLease, String> {
+
+    // Takes the lease if it is free or expired; returns 1 when this caller now holds it
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO public.population_leases (node_name, job_id, owner, expires_at) " +
+                   "VALUES (:nodeName, :jobId, :owner, LOCALTIMESTAMP + make_interval(secs => :ttlSeconds)) " +
+                   "ON CONFLICT (node_name) DO UPDATE SET job_id = EXCLUDED.job_id, owner = EXCLUDED.owner, " +
+                   "expires_at = EXCLUDED.expires_at WHERE population_leases.expires_at < LOCALTIMESTAMP",
+           nativeQuery = true)
+    int claim(@Param("nodeName") String nodeName, @Param("jobId") Long jobId,
+              @Param("owner") String owner, @Param("ttlSeconds") long ttlSeconds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE public.population_leases SET expires_at = LOCALTIMESTAMP + make_interval(secs => :ttlSeconds) " +
+                   "WHERE node_name = :nodeName AND job_id = :jobId",
+           nativeQuery = true)
+    int renew(@Param("nodeName") String nodeName, @Param("jobId") Long jobId, @Param("ttlSeconds") long ttlSeconds);
+
+    // Extends every lease the instance still holds, queued jobs included
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE public.population_leases SET expires_at = LOCALTIMESTAMP + make_interval(secs => :ttlSeconds) " +
+                   "WHERE owner = :owner AND expires_at >= LOCALTIMESTAMP",
+           nativeQuery = true)
+    int renewOwned(@Param("owner") String owner, @Param("ttlSeconds") long ttlSeconds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM public.population_leases WHERE node_name = :nodeName AND job_id = :jobId",
+           nativeQuery = true)
+    int release(@Param("nodeName") String nodeName, @Param("jobId") Long jobId);
+
+    @Query(value = "SELECT job_id FROM public.population_leases " +
+                   "WHERE node_name = :nodeName AND expires_at >= LOCALTIMESTAMP",
+           nativeQuery = true)
+    Optional<Long> findLiveJobId(@Param("nodeName") String nodeName);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM public.population_leases " +
+                   "WHERE job_id = :jobId AND expires_at >= LOCALTIMESTAMP)",
+           nativeQuery = true)
+    boolean isLive(@Param("jobId") Long jobId);
+}
@@ -0,0 +1,46 @@
+package com.optimize25.backend.repository;
+
+import com.optimize25.backend.dto.QuizBankPool;
+import com.optimize25.backend.model.QuizBankQuestion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface QuizBankQuestionRepository extends JpaRepository<QuizBankQuestion, Long> {
+    // Pools are capped at quiz.bank.pool-size, so shuffling one node's rows found through the
+    // node_id index stays cheap
+    @Query(value = "SELECT * FROM public.quiz_bank_questions WHERE node_id = :nodeId ORDER BY random() LIMIT :count",
+           nativeQuery = true)
+    List<QuizBankQuestion> sample(@Param("nodeId") Long nodeId, @Param("count") int count);
+
+    @Query("SELECT q.nodeId AS nodeId, COUNT(q) AS questions, MAX(q.createdAt) AS newestAt " +
+           "FROM QuizBankQuestion q WHERE q.nodeId IN :nodeIds GROUP BY q.nodeId")
+    List<QuizBankPool> findPools(@Param("nodeIds") Collection<Long> nodeIds);
+
+    // Skips questions the node already has, and nodes deleted while their questions were generated
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO public.quiz_bank_questions (node_id, question, options, correct_answer, created_at) " +
+                   "SELECT n.id, :question, :options, :correctAnswer, :createdAt FROM public.knowledge_nodes n " +
+                   "WHERE n.id = :nodeId ON CONFLICT (node_id, lower(question)) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("nodeId") Long nodeId, @Param("question") String question,
+                       @Param("options") String options, @Param("correctAnswer") String correctAnswer,
+                       @Param("createdAt") LocalDateTime createdAt);
+
+    // Drops all but the node's newest poolSize questions
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM public.quiz_bank_questions WHERE node_id = :nodeId AND id NOT IN (" +
+                   "SELECT id FROM public.quiz_bank_questions WHERE node_id = :nodeId " +
+                   "ORDER BY created_at DESC, id DESC LIMIT :poolSize)",
+           nativeQuery = true)
+    int trimPool(@Param("nodeId") Long nodeId, @Param("poolSize") int poolSize);
+}
@@ -0,0 +1,29 @@
+package com.optimize25.backend.repository;
+
+import com.optimize25.backend.model.QuizNodeVisit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface QuizNodeVisitRepository extends JpaRepository<QuizNodeVisit, Long> {
+    // Visits to a node deleted in the meantime are dropped
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO public.quiz_node_visits AS v (node_id, visits, last_visited_at) " +
+                   "SELECT n.id, :visits, :visitedAt FROM public.knowledge_nodes n WHERE n.id = :nodeId " +
+                   "ON CONFLICT (node_id) DO UPDATE SET visits = v.visits + EXCLUDED.visits, " +
+                   "last_visited_at = GREATEST(v.last_visited_at, EXCLUDED.last_visited_at)",
+           nativeQuery = true)
+    int addVisits(@Param("nodeId") Long nodeId, @Param("visits") long visits,
+                  @Param("visitedAt") LocalDateTime visitedAt);
+
+    @Query(value = "SELECT node_id FROM public.quiz_node_visits ORDER BY visits DESC LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findMostVisitedNodeIds(@Param("limit") int limit);
+}
@@ -0,0 +1,21 @@
+package com.optimize25.backend.repository;
+
+import com.optimize25.backend.model.QuizQuestionSet;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface QuizQuestionSetRepository extends JpaRepository<QuizQuestionSet, Long> {
+    List<QuizQuestionSet> findByTopicKeyAndCreatedAtAfterOrderByCreatedAt(String topicKey, LocalDateTime after);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM QuizQuestionSet q WHERE q.topicKey = :topicKey AND q.createdAt <= :cutoff")
+    int deleteExpired(@Param("topicKey") String topicKey, @Param("cutoff") LocalDateTime cutoff);
+}
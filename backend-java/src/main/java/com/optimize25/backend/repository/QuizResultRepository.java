@@ -1,15 +1,39 @@
 package com.optimize25.backend.repository;
 
+import com.optimize25.backend.dto.QuizResultDTO;
 import com.optimize25.backend.model.QuizResult;
-import com.optimize25.backend.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface QuizResultRepository extends JpaRepository<QuizResult, Long> {
-    List<QuizResult> findByTopicOrderByCreatedAtDesc(String topic);
-    List<QuizResult> findAllByOrderByCreatedAtDesc();
-    List<QuizResult> findByUserOrderByCreatedAtDesc(User user);
-    List<QuizResult> findByUserAndTopicOrderByCreatedAtDesc(User user, String topic);
-} 
\ No newline at end of file
+
+    // Keyset pages of a user's history, newest first: results in [from, to) that come after the
+    // (beforeAt, beforeId) cursor. Served from idx_quiz_results_user_created and
+    // idx_quiz_results_user_topic_created, with the username joined in the same query; the
+    // createdAt <= beforeAt bound lets the index scan start at the cursor instead of the newest row.
+    @Query("SELECT new com.optimize25.backend.dto.QuizResultDTO(r.id, r.topic, r.score, r.createdAt, u.username) " +
+           "FROM QuizResult r JOIN r.user u " +
+           "WHERE u.id = :userId AND r.createdAt >= :from AND r.createdAt < :to " +
+           "AND r.createdAt <= :beforeAt AND (r.createdAt < :beforeAt OR r.id < :beforeId) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<QuizResultDTO> findHistoryPage(@Param("userId") Long userId,
+                                        @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                        @Param("beforeAt") LocalDateTime beforeAt, @Param("beforeId") Long beforeId,
+                                        Pageable page);
+
+    @Query("SELECT new com.optimize25.backend.dto.QuizResultDTO(r.id, r.topic, r.score, r.createdAt, u.username) " +
+           "FROM QuizResult r JOIN r.user u " +
+           "WHERE u.id = :userId AND r.topic = :topic AND r.createdAt >= :from AND r.createdAt < :to " +
+           "AND r.createdAt <= :beforeAt AND (r.createdAt < :beforeAt OR r.id < :beforeId) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<QuizResultDTO> findTopicHistoryPage(@Param("userId") Long userId, @Param("topic") String topic,
+                                             @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                             @Param("beforeAt") LocalDateTime beforeAt, @Param("beforeId") Long beforeId,
+                                             Pageable page);
+}
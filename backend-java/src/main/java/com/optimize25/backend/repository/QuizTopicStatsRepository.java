@@ -0,0 +1,12 @@
+package com.optimize25.backend.repository;
+
+import com.optimize25.backend.model.QuizTopicStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface QuizTopicStatsRepository extends JpaRepository<QuizTopicStats, QuizTopicStats.Key> {
+
+    List<QuizTopicStats> findByUserIdOrderByLastAttemptAtDesc(Long userId);
+}
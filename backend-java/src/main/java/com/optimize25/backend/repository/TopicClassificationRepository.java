@@ -0,0 +1,24 @@
+package com.optimize25.backend.repository;
+
+import com.optimize25.backend.model.TopicClassification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface TopicClassificationRepository extends JpaRepository<TopicClassification, String> {
+
+    // Another instance may classify the same topic at the same time; the latest answer wins
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO public.topic_classifications (topic_key, topic, category, subcategory, created_at) " +
+                   "VALUES (:topicKey, :topic, :category, :subcategory, LOCALTIMESTAMP) " +
+                   "ON CONFLICT (topic_key) DO UPDATE SET topic = EXCLUDED.topic, category = EXCLUDED.category, " +
+                   "subcategory = EXCLUDED.subcategory, created_at = EXCLUDED.created_at",
+           nativeQuery = true)
+    int upsert(@Param("topicKey") String topicKey, @Param("topic") String topic,
+               @Param("category") String category, @Param("subcategory") String subcategory);
+}
@@ -2,10 +2,21 @@ package com.optimize25.backend.repository;
 
 import com.optimize25.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
-} 
\ No newline at end of file
+
+    // Get-or-create in one statement. The no-op update on conflict makes RETURNING yield the
+    // existing id too, and concurrent callers for a new name all get the row that won.
+    @Transactional
+    @Query(value = "INSERT INTO public.users (username, created_at) VALUES (:username, LOCALTIMESTAMP) " +
+                   "ON CONFLICT (username) DO UPDATE SET username = EXCLUDED.username RETURNING id",
+           nativeQuery = true)
+    Long upsertId(@Param("username") String username);
+}
@@ -0,0 +1,106 @@
+package com.optimize25.backend.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+
+// A size-bounded map for lookups on the request path. Reads and writes go straight to a
+// ConcurrentHashMap and take no lock, so virtual threads never queue on a monitor here. Each
+// entry remembers when it was last used; once the map outgrows its bound by a tenth, the writer
+// that notices drops the least recently used entries back down to the bound in one pass, so the
+// cost of eviction is spread over many inserts. Recency is approximate under concurrent use.
+final class BoundedCache<K, V> {
+
+    private final int maxEntries;
+    private final int evictAbove;
+    private final Runnable beforeEviction;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    // Only one writer evicts at a time; the others carry on without waiting for it
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    BoundedCache(int maxEntries) {
+        this(maxEntries, () -> { });
+    }
+
+    // beforeEviction runs before any entry is dropped, for owners that need to know
+    BoundedCache(int maxEntries, Runnable beforeEviction) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.evictAbove = this.maxEntries + Math.max(1, this.maxEntries / 10);
+        this.beforeEviction = beforeEviction;
+    }
+
+    V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.lastAccess = System.nanoTime();
+        return entry.value;
+    }
+
+    void put(K key, V value) {
+        entries.put(key, new Entry<>(value));
+        evictIfNeeded();
+    }
+
+    void merge(K key, V value, BinaryOperator<V> remapping) {
+        entries.merge(key, new Entry<>(value), (current, added) -> new Entry<>(remapping.apply(current.value, added.value)));
+        evictIfNeeded();
+    }
+
+    void remove(K key) {
+        entries.remove(key);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evictIfNeeded() {
+        if (entries.size() <= evictAbove || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int excess = entries.size() - maxEntries;
+            if (excess <= 0) {
+                return;
+            }
+            // Access times are read once up front; sorting on the live values could see them change
+            List<Candidate<K, V>> eldest = entries.entrySet().stream()
+                .map(entry -> new Candidate<>(entry.getKey(), entry.getValue(), entry.getValue().lastAccess))
+                .sorted(Comparator.comparingLong(candidate -> candidate.lastAccess))
+                .limit(excess)
+                .toList();
+            beforeEviction.run();
+            for (Candidate<K, V> candidate : eldest) {
+                // Skipped if it was replaced in the meantime
+                entries.remove(candidate.key, candidate.entry);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static final class Candidate<K, V> {
+        private final K key;
+        private final Entry<V> entry;
+        private final long lastAccess;
+
+        private Candidate(K key, Entry<V> entry, long lastAccess) {
+            this.key = key;
+            this.entry = entry;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private volatile long lastAccess = System.nanoTime();
+
+        private Entry(V value) {
+            this.value = value;
+        }
+    }
+}
@@ -8,32 +8,45 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.*;
+import java.util.function.Consumer;
+import com.optimize25.backend.config.OpenAiConfig;
 import com.optimize25.backend.model.KnowledgeNode;
+import com.optimize25.backend.model.PopulationJobStatus;
 import com.optimize25.backend.repository.KnowledgeNodeRepository;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.core.env.Environment;
+import org.springframework.context.ApplicationEventPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.dao.DataIntegrityViolationException;
 
 @Service
 public class ChatGPTService {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatGPTService.class);
     private final String apiKey;
-    private final String apiUrl = "https://api.openai.com/v1/chat/completions";
+    private final String apiUrl;
     private final RestTemplate restTemplate;
     private final KnowledgeNodeRepository knowledgeNodeRepository;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TopicClassifier topicClassifier;
     private static final int BATCH_SIZE = 50;
-    private static final Set<String> nodesBeingPopulated = Collections.synchronizedSet(new HashSet<>());
-    private static final Set<String> KNOWN_CATEGORIES = Set.of(
-        "Software Engineering", "Data Science", "Business", "Psychology", "Mathematics", "Physics", "Biology"
-    );
+    // knowledge_nodes.name is VARCHAR(255)
+    private static final int MAX_NAME_LENGTH = 255;
 
-    public ChatGPTService(KnowledgeNodeRepository knowledgeNodeRepository, Environment environment) {
-        this.restTemplate = new RestTemplate();
+    public ChatGPTService(KnowledgeNodeRepository knowledgeNodeRepository, Environment environment,
+                          ApplicationEventPublisher eventPublisher, RestTemplate restTemplate,
+                          OpenAiConfig openAiConfig, PlatformTransactionManager transactionManager,
+                          TopicClassifier topicClassifier) {
+        // Shared pooled client, see RestTemplateConfig
+        this.restTemplate = restTemplate;
+        this.apiUrl = openAiConfig.getOpenaiApiUrl();
         this.knowledgeNodeRepository = knowledgeNodeRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.topicClassifier = topicClassifier;
         this.objectMapper = new ObjectMapper();
         this.apiKey = environment.getProperty("OPENAI_API_KEY");
         if (this.apiKey == null || this.apiKey.isEmpty()) {
@@ -41,80 +54,83 @@ public class ChatGPTService {
         }
     }
 
-    @Transactional
-    public void populateNode(String nodeName) {
+    // Populates a topic in three phases so that no transaction, and no pooled connection, is
+    // held while waiting on GPT-4: classify the topic, generate subtopics, then write everything
+    // in one short transaction. Progress is reported as each phase starts.
+    public PopulationResult populateNode(String nodeName, Consumer<PopulationJobStatus> progress) {
         logger.info("Starting to populate node: {}", nodeName);
-        
-        // Check if node is already being populated
-        if (!nodesBeingPopulated.add(nodeName)) {
-            logger.info("Node {} is already being populated, skipping request", nodeName);
-            throw new RuntimeException("This topic is already being populated. Please wait for the current operation to complete.");
-        }
-        
+
+        progress.accept(PopulationJobStatus.CLASSIFYING);
+        TopicClassifier.Classification category = classifyTopic(nodeName);
+
+        progress.accept(PopulationJobStatus.GENERATING);
+        List<KnowledgeNode> existingChildren = knowledgeNodeRepository.findByName(nodeName)
+            .map(node -> knowledgeNodeRepository.findByParentId(node.getId()))
+            .orElse(Collections.emptyList());
+        String prompt = buildPromptWithContext(nodeName, existingChildren);
+        List<Map<String, Object>> nodeDataList;
         try {
-            // First, determine the appropriate parent category for this node
-            KnowledgeNode parentNode = determineParentCategory(nodeName);
-            
-            // Create or get the node
-            KnowledgeNode node;
-            Optional<KnowledgeNode> existingNode = knowledgeNodeRepository.findByName(nodeName);
-            
-            if (existingNode.isPresent()) {
-                node = existingNode.get();
-                // Update parent if needed
-                if (!node.getParent().equals(parentNode)) {
-                    node.setParent(parentNode);
-                    node = knowledgeNodeRepository.save(node);
-                }
-            } else {
-                // Create new node under determined parent
-                node = new KnowledgeNode();
-                node.setName(nodeName);
+            nodeDataList = parseResponse(callChatGPT(prompt));
+        } catch (Exception e) {
+            logger.error("Failed to populate node: " + nodeName, e);
+            throw new RuntimeException("Failed to populate node: " + e.getMessage());
+        }
+
+        progress.accept(PopulationJobStatus.SAVING);
+        return transactionTemplate.execute(status -> saveGeneratedNodes(nodeName, category, nodeDataList));
+    }
+
+    private PopulationResult saveGeneratedNodes(String nodeName, TopicClassifier.Classification category,
+                                                List<Map<String, Object>> nodeDataList) {
+        KnowledgeNode parentNode = resolveParentCategory(nodeName, category);
+
+        // Create or get the node
+        KnowledgeNode node;
+        Optional<KnowledgeNode> existingNode = knowledgeNodeRepository.findByName(nodeName);
+
+        if (existingNode.isPresent()) {
+            node = existingNode.get();
+            // Update parent if needed, carrying the node's subtree along
+            String oldDescendantPrefix = node.getDescendantPathPrefix();
+            if (!parentNode.equals(node.getParent())
+                    && !parentNode.getDescendantPathPrefix().startsWith(oldDescendantPrefix)) {
+                int oldLevel = node.getLevel();
+                node.setNodeOrder(appendRank(parentNode.getId()));
                 node.setParent(parentNode);
                 node.setLevel(parentNode.getLevel() + 1);
-                node = knowledgeNodeRepository.save(node);
+                node = knowledgeNodeRepository.saveAndFlush(node);
+                knowledgeNodeRepository.moveDescendants(oldDescendantPrefix,
+                    node.getDescendantPathPrefix(), node.getLevel() - oldLevel);
             }
-            
-            // Get existing children names for duplicate detection
-            Set<String> existingChildrenNames = new HashSet<>(
-                knowledgeNodeRepository.findChildrenNamesByParentId(node.getId())
-            );
-            
-            logger.info("Found/Created node with ID: {} under parent: {}, with {} existing children", 
-                node.getId(), parentNode.getName(), existingChildrenNames.size());
-
-            // Prepare the prompt for ChatGPT with context
-            String prompt = buildPromptWithContext(nodeName, existingChildrenNames);
-            
-            try {
-                String content = callChatGPT(prompt);
-                List<Map<String, Object>> nodeDataList = parseResponse(content);
-                
-                // Process nodes in batches
-                createNodesInBatches(nodeDataList, node, existingChildrenNames);
-                
-            } catch (Exception e) {
-                logger.error("Failed to populate node: " + nodeName, e);
-                throw new RuntimeException("Failed to populate node: " + e.getMessage());
-            }
-        } finally {
-            nodesBeingPopulated.remove(nodeName);
+        } else {
+            // Create new node under determined parent
+            node = new KnowledgeNode();
+            node.setName(nodeName);
+            node.setNodeOrder(appendRank(parentNode.getId()));
+            node.setParent(parentNode);
+            node.setLevel(parentNode.getLevel() + 1);
+            node = knowledgeNodeRepository.save(node);
         }
+
+        // Re-read children names now, so subtopics added during generation are not duplicated
+        Set<String> existingChildrenNames = new HashSet<>(
+            knowledgeNodeRepository.findChildrenNamesByParentId(node.getId())
+        );
+
+        logger.info("Found/Created node with ID: {} under parent: {}, with {} existing children",
+            node.getId(), parentNode.getName(), existingChildrenNames.size());
+
+        int created = createNodesInBatches(nodeDataList, node, existingChildrenNames);
+        eventPublisher.publishEvent(new KnowledgeTreeChangedEvent("populate"));
+        return new PopulationResult(node.getId(), created);
     }
 
-    private String buildPromptWithContext(String nodeName, Set<String> existingChildrenNames) {
+    private String buildPromptWithContext(String nodeName, List<KnowledgeNode> existingNodes) {
         StringBuilder prompt = new StringBuilder();
         prompt.append(String.format(
             "Create a detailed learning plan for %s. ", nodeName));
         
-        if (!existingChildrenNames.isEmpty()) {
-            // Get existing nodes' details
-            List<KnowledgeNode> existingNodes = knowledgeNodeRepository.findByParentId(
-                knowledgeNodeRepository.findByName(nodeName)
-                    .orElseThrow(() -> new RuntimeException("Node not found: " + nodeName))
-                    .getId()
-            );
-            
+        if (!existingNodes.isEmpty()) {
             prompt.append("\nExisting subtopics and their content:\n");
             for (KnowledgeNode node : existingNodes) {
                 prompt.append("\nTopic: ").append(node.getName())
@@ -215,14 +231,14 @@ public class ChatGPTService {
         return value.toString();
     }
 
-    @Transactional
-    private void createNodesInBatches(
+    private int createNodesInBatches(
         List<Map<String, Object>> nodeDataList, 
         KnowledgeNode parent,
         Set<String> existingChildrenNames
     ) {
         List<KnowledgeNode> nodeBatch = new ArrayList<>();
-        long orderCounter = knowledgeNodeRepository.countByParent(parent);
+        int created = 0;
+        int nextOrder = knowledgeNodeRepository.appendBaseRank(parent.getId(), nodeDataList.size());
         
         for (Map<String, Object> nodeData : nodeDataList) {
             String nodeName = extractStringValue(nodeData, "name");
@@ -236,28 +252,31 @@ public class ChatGPTService {
                 logger.info("Skipping duplicate node: {}", nodeName);
                 continue;
             }
-            
-            try {
-                KnowledgeNode node = new KnowledgeNode();
-                node.setName(nodeName);
-                node.setDescription(extractStringValue(nodeData, "description"));
-                node.setContent(extractStringValue(nodeData, "content"));
-                node.setExamples(extractStringValue(nodeData, "examples"));
-                node.setReferences(extractStringValue(nodeData, "references"));
-                node.setParent(parent);
-                node.setLevel(parent.getLevel() + 1);
-                node.setNodeOrder(Math.toIntExact(++orderCounter));
-                
-                nodeBatch.add(node);
-                
-                // Save batch when it reaches the size limit
-                if (nodeBatch.size() >= BATCH_SIZE) {
-                    saveNodeBatch(nodeBatch);
-                    nodeBatch.clear();
-                }
-                
-            } catch (Exception e) {
-                logger.error("Error creating node: {}", nodeName, e);
+            // Would fail the insert, and with it the whole populate transaction
+            if (nodeName.length() > MAX_NAME_LENGTH) {
+                logger.warn("Skipping node with a name longer than {} characters: {}...",
+                    MAX_NAME_LENGTH, nodeName.substring(0, 50));
+                continue;
+            }
+
+            KnowledgeNode node = new KnowledgeNode();
+            node.setName(nodeName);
+            node.setDescription(extractStringValue(nodeData, "description"));
+            node.setContent(extractStringValue(nodeData, "content"));
+            node.setExamples(extractStringValue(nodeData, "examples"));
+            node.setReferences(extractStringValue(nodeData, "references"));
+            node.setParent(parent);
+            node.setLevel(parent.getLevel() + 1);
+            nextOrder += KnowledgeNode.ORDER_GAP;
+            node.setNodeOrder(nextOrder);
+
+            nodeBatch.add(node);
+            created++;
+
+            // Save batch when it reaches the size limit
+            if (nodeBatch.size() >= BATCH_SIZE) {
+                saveNodeBatch(nodeBatch);
+                nodeBatch.clear();
             }
         }
         
@@ -265,37 +284,29 @@ public class ChatGPTService {
         if (!nodeBatch.isEmpty()) {
             saveNodeBatch(nodeBatch);
         }
+        return created;
     }
 
+    // Flushed here so each batch goes out as one JDBC batch. A failed batch is not retried node by
+    // node: the populate transaction is rollback-only by then, so the job fails with nothing saved.
     private void saveNodeBatch(List<KnowledgeNode> nodes) {
-        int batchSize = 50;
-        for (int i = 0; i < nodes.size(); i += batchSize) {
-            int endIndex = Math.min(i + batchSize, nodes.size());
-            List<KnowledgeNode> batch = nodes.subList(i, endIndex);
-            try {
-                knowledgeNodeRepository.saveAll(batch);
-            } catch (DataIntegrityViolationException e) {
-                logger.error("Error saving batch of nodes: {}", e.getMessage());
-                // Handle individual nodes in the batch
-                for (KnowledgeNode node : batch) {
-                    try {
-                        knowledgeNodeRepository.save(node);
-                    } catch (DataIntegrityViolationException ex) {
-                        logger.error("Error saving individual node {}: {}", node.getName(), ex.getMessage());
-                    }
-                }
-            }
+        knowledgeNodeRepository.saveAllAndFlush(nodes);
+    }
+
+    // Works out where the topic belongs; no tree nodes are written yet. GPT-4 is only asked
+    // when the classifier has no earlier answer and cannot place the topic from the tree.
+    private TopicClassifier.Classification classifyTopic(String nodeName) {
+        Optional<TopicClassifier.Classification> known = topicClassifier.lookup(nodeName);
+        if (known.isPresent()) {
+            return known.get();
         }
+        TopicClassifier.Classification classification = askForCategory(nodeName);
+        topicClassifier.remember(nodeName, classification);
+        return classification;
     }
 
-    private KnowledgeNode determineParentCategory(String nodeName) {
+    private TopicClassifier.Classification askForCategory(String nodeName) {
         try {
-            // If the topic itself is a known category, place it directly under Learning Plan
-            if (KNOWN_CATEGORIES.stream().anyMatch(cat -> cat.equalsIgnoreCase(nodeName))) {
-                return knowledgeNodeRepository.findByName("Learning Plan")
-                    .orElseThrow(() -> new RuntimeException("Learning Plan root node not found"));
-            }
-
             String prompt = String.format(
                 "Analyze the topic '%s' and determine its most appropriate category path. " +
                 "Consider these main categories:\n" +
@@ -333,41 +344,7 @@ public class ChatGPTService {
                     Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
                     String content = (String) message.get("content");
                     Map<String, String> categoryInfo = objectMapper.readValue(content, Map.class);
-                    
-                    // Get or create the main category
-                    String mainCategory = categoryInfo.get("category");
-                    String subcategory = categoryInfo.get("subcategory");
-                    
-                    KnowledgeNode learningPlan = knowledgeNodeRepository.findByName("Learning Plan")
-                        .orElseThrow(() -> new RuntimeException("Learning Plan root node not found"));
-
-                    // If the main category is not recognized or is the same as the topic, place under Learning Plan
-                    if (mainCategory == null || !KNOWN_CATEGORIES.contains(mainCategory) || mainCategory.equalsIgnoreCase(nodeName)) {
-                        return learningPlan;
-                    }
-
-                    KnowledgeNode mainCategoryNode = knowledgeNodeRepository.findByName(mainCategory)
-                        .orElseGet(() -> {
-                            KnowledgeNode newCategory = new KnowledgeNode();
-                            newCategory.setName(mainCategory);
-                            newCategory.setParent(learningPlan);
-                            newCategory.setLevel(learningPlan.getLevel() + 1);
-                            return knowledgeNodeRepository.save(newCategory);
-                        });
-
-                    // Get or create the subcategory if provided
-                    if (subcategory != null && !subcategory.isEmpty() && !subcategory.equalsIgnoreCase(nodeName)) {
-                        return knowledgeNodeRepository.findByNameAndParent(subcategory, mainCategoryNode)
-                            .orElseGet(() -> {
-                                KnowledgeNode newSubcategory = new KnowledgeNode();
-                                newSubcategory.setName(subcategory);
-                                newSubcategory.setParent(mainCategoryNode);
-                                newSubcategory.setLevel(mainCategoryNode.getLevel() + 1);
-                                return knowledgeNodeRepository.save(newSubcategory);
-                            });
-                    }
-                    
-                    return mainCategoryNode;
+                    return new TopicClassifier.Classification(categoryInfo.get("category"), categoryInfo.get("subcategory"));
                 }
             }
             
@@ -377,4 +354,67 @@ public class ChatGPTService {
             throw new RuntimeException("Failed to determine appropriate category: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    // Finds or creates the category nodes for a classification; runs inside the write transaction
+    private KnowledgeNode resolveParentCategory(String nodeName, TopicClassifier.Classification category) {
+        String mainCategory = category.getCategory();
+        String subcategory = category.getSubcategory();
+
+        KnowledgeNode learningPlan = knowledgeNodeRepository.findByName("Learning Plan")
+            .orElseThrow(() -> new RuntimeException("Learning Plan root node not found"));
+
+        // If the main category is not recognized or is the same as the topic, place under Learning Plan
+        if (mainCategory == null || !TopicClassifier.KNOWN_CATEGORIES.contains(mainCategory) || mainCategory.equalsIgnoreCase(nodeName)) {
+            return learningPlan;
+        }
+
+        KnowledgeNode mainCategoryNode = knowledgeNodeRepository.findByName(mainCategory)
+            .orElseGet(() -> {
+                KnowledgeNode newCategory = new KnowledgeNode();
+                newCategory.setName(mainCategory);
+                newCategory.setNodeOrder(appendRank(learningPlan.getId()));
+                newCategory.setParent(learningPlan);
+                newCategory.setLevel(learningPlan.getLevel() + 1);
+                return knowledgeNodeRepository.save(newCategory);
+            });
+
+        // Get or create the subcategory if provided
+        if (subcategory != null && !subcategory.isEmpty() && !subcategory.equalsIgnoreCase(nodeName)) {
+            return knowledgeNodeRepository.findByNameAndParent(subcategory, mainCategoryNode)
+                .orElseGet(() -> {
+                    KnowledgeNode newSubcategory = new KnowledgeNode();
+                    newSubcategory.setName(subcategory);
+                    newSubcategory.setNodeOrder(appendRank(mainCategoryNode.getId()));
+                    newSubcategory.setParent(mainCategoryNode);
+                    newSubcategory.setLevel(mainCategoryNode.getLevel() + 1);
+                    return knowledgeNodeRepository.save(newSubcategory);
+                });
+        }
+        
+        return mainCategoryNode;
+    }
+
+    // After the parent's last child. Called before the new node is attached to the parent, so
+    // the query's auto-flush cannot count it among the siblings.
+    private int appendRank(Long parentId) {
+        return knowledgeNodeRepository.appendBaseRank(parentId, 1) + KnowledgeNode.ORDER_GAP;
+    }
+
+    public static final class PopulationResult {
+        private final Long nodeId;
+        private final int createdNodes;
+
+        public PopulationResult(Long nodeId, int createdNodes) {
+            this.nodeId = nodeId;
+            this.createdNodes = createdNodes;
+        }
+
+        public Long getNodeId() {
+            return nodeId;
+        }
+
+        public int getCreatedNodes() {
+            return createdNodes;
+        }
+    }
+}
@@ -1,20 +1,11 @@
 package com.optimize25.backend.service;
 
 import com.optimize25.backend.model.Question;
-import com.optimize25.backend.model.QuizResult;
 import com.optimize25.backend.model.QuizSubmission;
-import com.optimize25.backend.model.User;
-import com.optimize25.backend.repository.QuizResultRepository;
-import com.optimize25.backend.config.OpenAiConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.ResponseEntity;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.type.TypeReference;
+import java.time.LocalDateTime;
 import java.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,90 +15,72 @@ import java.util.stream.Collectors;
 public class EvaluationService {
 
     private static final Logger logger = LoggerFactory.getLogger(EvaluationService.class);
-    private static final Map<String, List<Question>> quizCache = new HashMap<>();
+    // Length of the topic columns in quiz_results and quiz_topic_stats
+    private static final int MAX_TOPIC_LENGTH = 255;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private QuizGenerator quizGenerator;
 
     @Autowired
-    private QuizResultRepository quizResultRepository;
+    private QuizResultWriter quizResultWriter;
+
+    @Autowired
+    private QuizBestScores quizBestScores;
 
     @Autowired
     private UserService userService;
 
     @Autowired
-    private OpenAiConfig openAiConfig;
+    private QuizCache quizCache;
+
+    @Autowired
+    private QuizBank quizBank;
 
-    private final String model = "gpt-3.5-turbo";
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SingleFlight<String, Map<String, Object>> quizFlights = new SingleFlight<>();
 
-    public Map<String, Object> generateQuiz(String topic) {
+    // Topics that name a knowledge node are sampled from its pre-generated pool. Anything else,
+    // or a node whose pool is still being filled, falls back to the quiz cache; concurrent
+    // requests for the same topic share one cache lookup and at most one OpenAI call.
+    public Map<String, Object> generateQuiz(String topic, Long nodeId) {
+        Optional<List<Question>> banked = quizBank.sample(nodeId, topic);
+        if (banked.isPresent()) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("questions", banked.get());
+            return result;
+        }
+        return quizFlights.run(QuizCache.normalize(topic), () -> loadQuiz(topic));
+    }
+
+    private Map<String, Object> loadQuiz(String topic) {
         // Check cache first
-        if (quizCache.containsKey(topic)) {
+        Optional<List<Question>> cached = quizCache.get(topic);
+        if (cached.isPresent()) {
             logger.info("Returning cached quiz for topic: {}", topic);
             Map<String, Object> result = new HashMap<>();
-            result.put("questions", quizCache.get(topic));
+            result.put("questions", cached.get());
             return result;
         }
 
-        String prompt = String.format(
-            "Generate 5 technical multiple choice questions about %s. " +
-            "Each question must have 4 options and one correct answer. " +
-            "Format as JSON array with fields: question, options, correctAnswer. " +
-            "Return only the JSON array, without any wrapper object.",
-            topic
-        );
-
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", model);
-        requestBody.put("messages", Arrays.asList(
-            Map.of("role", "system", "content", "You are a technical quiz generator. Respond only with JSON."),
-            Map.of("role", "user", "content", prompt)
-        ));
-        requestBody.put("temperature", 0.7);
-        requestBody.put("max_tokens", 1000);
-
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, openAiConfig.openaiHeaders());
-
         try {
-            long startTime = System.currentTimeMillis();
-            ResponseEntity<Map> response = restTemplate.postForEntity(
-                openAiConfig.getOpenaiApiUrl(),
-                request,
-                Map.class
-            );
-            long endTime = System.currentTimeMillis();
-            logger.info("Quiz generation took {} ms", endTime - startTime);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map responseBody = response.getBody();
-                List<Map<String, Object>> choices = (List<Map<String, Object>>) responseBody.get("choices");
-                String content = (String) ((Map<String, Object>) choices.get(0).get("message")).get("content");
-
-                // Log the raw response for debugging
-                logger.debug("Raw response from ChatGPT: {}", content);
-
-                // Parse the JSON string directly into a List of Question objects
-                List<Question> questions = objectMapper.readValue(
-                    content.trim(),
-                    new TypeReference<List<Question>>() {}
-                );
-
-                // Validate that we got questions about the topic
-                if (questions.isEmpty()) {
-                    throw new RuntimeException("No questions generated");
-                }
-
-                // Cache the questions
+            List<Question> questions = quizGenerator.generate(topic);
+
+            // Only complete quizzes are cached; a short one is served once and generated again next time
+            if (questions.size() == QuizGenerator.QUESTIONS_PER_QUIZ) {
                 quizCache.put(topic, questions);
+            }
 
+            Map<String, Object> result = new HashMap<>();
+            result.put("questions", questions);
+            return result;
+        } catch (Exception e) {
+            // A topic still filling its rotation can fall back to a set it already has
+            Optional<List<Question>> fallback = quizCache.getAny(topic);
+            if (fallback.isPresent()) {
+                logger.warn("Quiz generation failed for topic: {}, serving a cached quiz instead", topic, e);
                 Map<String, Object> result = new HashMap<>();
-                result.put("questions", questions);
+                result.put("questions", fallback.get());
                 return result;
-            } else {
-                throw new RuntimeException("Failed to get response from OpenAI API");
             }
-        } catch (Exception e) {
             logger.error("Error generating quiz for topic: " + topic, e);
             throw new RuntimeException("Failed to generate quiz: " + e.getMessage());
         }
@@ -147,7 +120,25 @@ public class EvaluationService {
         return response;
     }
 
+    public Map<String, Object> getQuizCacheStats() {
+        Map<String, Object> stats = quizCache.stats();
+        stats.put("coalescedRequests", quizFlights.getCoalescedCount());
+        stats.put("generationsInFlight", quizFlights.getInFlightCount());
+        stats.putAll(quizGenerator.stats());
+        stats.putAll(quizBank.stats());
+        return stats;
+    }
+
     public Map<String, Object> evaluateQuiz(QuizSubmission submission) {
+        // Checked before the result is queued, where a bad row would hold up other users' results
+        String topic = submission.getTopic();
+        if (topic == null || topic.isBlank() || topic.length() > MAX_TOPIC_LENGTH) {
+            throw new IllegalArgumentException("Topic must be 1 to " + MAX_TOPIC_LENGTH + " characters");
+        }
+        if (topic.indexOf('\0') >= 0) {
+            // Postgres text cannot hold NUL characters
+            throw new IllegalArgumentException("Topic must not contain NUL characters");
+        }
         int correctAnswers = 0;
         List<Question> questions = submission.getQuestions();
         Map<Integer, String> userAnswers = submission.getUserAnswers();
@@ -161,29 +152,20 @@ public class EvaluationService {
 
         double score = (double) correctAnswers / questions.size() * 100;
 
-        // Get the guest user
-        User guestUser = userService.getOrCreateGuestUser();
+        Long userId = userService.getGuestUserId();
 
-        // Save the quiz result
-        QuizResult quizResult = new QuizResult();
-        quizResult.setTopic(submission.getTopic());
-        quizResult.setScore(score);
-        quizResult.setUser(guestUser);
-        quizResultRepository.save(quizResult);
+        // The best score before this attempt, from memory
+        OptionalDouble previousBest = quizBestScores.get(userId, topic);
+
+        // Save the quiz result and its topic totals, batched with other submissions
+        quizResultWriter.write(userId, topic, score, LocalDateTime.now());
+        quizBestScores.record(userId, topic, score);
 
         Map<String, Object> result = new HashMap<>();
         result.put("score", score);
         result.put("correctAnswers", correctAnswers);
         result.put("totalQuestions", questions.size());
-
-        // Get previous results for this topic and user
-        List<QuizResult> previousResults = quizResultRepository.findByTopicOrderByCreatedAtDesc(submission.getTopic());
-        if (!previousResults.isEmpty()) {
-            result.put("previousBestScore", previousResults.stream()
-                .mapToDouble(QuizResult::getScore)
-                .max()
-                .orElse(0.0));
-        }
+        previousBest.ifPresent(best -> result.put("previousBestScore", best));
 
         return result;
     }
@@ -0,0 +1,90 @@
+package com.optimize25.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+// Tells KnowledgeTreeSnapshotService about tree changes committed anywhere else: other instances,
+// or straight to the database. A trigger on knowledge_nodes sends a knowledge_tree_changed
+// notification when a writing transaction commits (V7__notify_knowledge_tree_changes.sql), and
+// this listens for it on a connection of its own, outside the pool, on its own thread. Nothing is
+// heard while that connection is down, so every (re)connect also schedules a reload.
+@Component
+public class KnowledgeTreeChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnowledgeTreeChangeListener.class);
+    private static final String CHANNEL = "knowledge_tree_changed";
+
+    private final DataSourceProperties dataSourceProperties;
+    private final KnowledgeTreeSnapshotService snapshotService;
+    private final int checkIntervalMillis;
+    private volatile boolean running = true;
+    private volatile Thread listenerThread;
+
+    public KnowledgeTreeChangeListener(DataSourceProperties dataSourceProperties,
+                                       KnowledgeTreeSnapshotService snapshotService,
+                                       @Value("${knowledge-tree.snapshot.listen-interval:2s}") Duration checkInterval) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.snapshotService = snapshotService;
+        this.checkIntervalMillis = (int) checkInterval.toMillis();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        listenerThread = Thread.ofVirtual().name("knowledge-tree-listener").start(this::listen);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        Thread thread = listenerThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                     dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                logger.info("Listening for knowledge tree changes from other instances");
+                snapshotService.onExternalChange();
+
+                PGConnection notifications = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] received = notifications.getNotifications(checkIntervalMillis);
+                    if (received != null && received.length > 0) {
+                        snapshotService.onExternalChange();
+                    } else if (!connection.isValid(checkIntervalMillis / 1000 + 1)) {
+                        throw new SQLException("Notification connection is no longer valid");
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Lost the knowledge tree change listener, reconnecting: {}", e.getMessage());
+                try {
+                    Thread.sleep(checkIntervalMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
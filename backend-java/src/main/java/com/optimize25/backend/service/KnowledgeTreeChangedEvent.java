@@ -0,0 +1,14 @@
+package com.optimize25.backend.service;
+
+// Published whenever a transaction writes to knowledge_nodes; the snapshot refreshes once it commits
+public class KnowledgeTreeChangedEvent {
+    private final String reason;
+
+    public KnowledgeTreeChangedEvent(String reason) {
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,252 @@
+package com.optimize25.backend.service;
+
+import com.optimize25.backend.dto.TreeNodeDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+// Ranked full-text index over one snapshot's names, descriptions, examples and content.
+// Documents are snapshot positions; each term keeps a sorted posting list of (document, weight).
+final class KnowledgeTreeSearchIndex {
+
+    private static final float NAME_WEIGHT = 8f;
+    private static final float DESCRIPTION_WEIGHT = 3f;
+    private static final float EXAMPLES_WEIGHT = 1.5f;
+    private static final float CONTENT_WEIGHT = 1f;
+
+    // Matches on an expanded term count for less than an exact hit
+    private static final float PREFIX_FACTOR = 0.8f;
+    private static final float FUZZY_FACTOR = 0.5f;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    private static final float EXACT_NAME_BONUS = 100f;
+    private static final float NAME_PREFIX_BONUS = 20f;
+    private static final float NAME_CONTAINS_BONUS = 5f;
+
+    private final String[] terms;
+    private final int[][] postingDocs;
+    private final float[][] postingWeights;
+    private final float[] idf;
+    private final String[] names;
+
+    private KnowledgeTreeSearchIndex(String[] terms, int[][] postingDocs, float[][] postingWeights,
+                                     float[] idf, String[] names) {
+        this.terms = terms;
+        this.postingDocs = postingDocs;
+        this.postingWeights = postingWeights;
+        this.idf = idf;
+        this.names = names;
+    }
+
+    static KnowledgeTreeSearchIndex build(TreeNodeDTO[] nodes) {
+        Map<String, PostingBuilder> postings = new HashMap<>();
+        String[] names = new String[nodes.length];
+
+        for (int doc = 0; doc < nodes.length; doc++) {
+            TreeNodeDTO node = nodes[doc];
+            names[doc] = node.getName() != null ? node.getName().toLowerCase(Locale.ROOT) : "";
+
+            Map<String, Float> termWeights = new HashMap<>();
+            addField(termWeights, node.getName(), NAME_WEIGHT);
+            addField(termWeights, node.getDescription(), DESCRIPTION_WEIGHT);
+            addField(termWeights, node.getExamples(), EXAMPLES_WEIGHT);
+            addField(termWeights, node.getContent(), CONTENT_WEIGHT);
+
+            // Documents are visited in order, so every posting list stays sorted by document
+            for (Map.Entry<String, Float> entry : termWeights.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new PostingBuilder()).add(doc, entry.getValue());
+            }
+        }
+
+        String[] terms = postings.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        int[][] postingDocs = new int[terms.length][];
+        float[][] postingWeights = new float[terms.length][];
+        float[] idf = new float[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            PostingBuilder builder = postings.get(terms[i]);
+            postingDocs[i] = Arrays.copyOf(builder.docs, builder.size);
+            postingWeights[i] = Arrays.copyOf(builder.weights, builder.size);
+            idf[i] = (float) Math.log(1 + (double) nodes.length / builder.size);
+        }
+        return new KnowledgeTreeSearchIndex(terms, postingDocs, postingWeights, idf, names);
+    }
+
+    // Returns snapshot positions of the best matches, highest score first. The last query
+    // token is treated as a prefix so results keep up with type-ahead input.
+    int[] search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+
+        float[] scores = new float[names.length];
+        int[] matchedTokens = new int[names.length];
+        int[] lastToken = new int[names.length];
+        Arrays.fill(lastToken, -1);
+        List<Integer> touched = new ArrayList<>();
+
+        for (int t = 0; t < tokens.size(); t++) {
+            String token = tokens.get(t);
+            for (Expansion expansion : expand(token, t == tokens.size() - 1)) {
+                int term = expansion.term;
+                float factor = expansion.factor * idf[term];
+                for (int p = 0; p < postingDocs[term].length; p++) {
+                    int doc = postingDocs[term][p];
+                    if (scores[doc] == 0f) {
+                        touched.add(doc);
+                    }
+                    scores[doc] += postingWeights[term][p] * factor;
+                    if (lastToken[doc] != t) {
+                        lastToken[doc] = t;
+                        matchedTokens[doc]++;
+                    }
+                }
+            }
+        }
+
+        String phrase = query.trim().toLowerCase(Locale.ROOT);
+        PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, (a, b) -> scores[a] != scores[b]
+            ? Float.compare(scores[a], scores[b])
+            : Integer.compare(b, a));
+        for (int doc : touched) {
+            // Favour documents that match every query token, then names that match the phrase
+            float coverage = (float) matchedTokens[doc] / tokens.size();
+            scores[doc] *= coverage * coverage;
+            if (names[doc].equals(phrase)) {
+                scores[doc] += EXACT_NAME_BONUS;
+            } else if (names[doc].startsWith(phrase)) {
+                scores[doc] += NAME_PREFIX_BONUS;
+            } else if (names[doc].contains(phrase)) {
+                scores[doc] += NAME_CONTAINS_BONUS;
+            }
+            best.offer(doc);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        int[] results = new int[best.size()];
+        for (int i = results.length - 1; i >= 0; i--) {
+            results[i] = best.poll();
+        }
+        return results;
+    }
+
+    private List<Expansion> expand(String token, boolean allowPrefix) {
+        List<Expansion> expansions = new ArrayList<>();
+        int exact = Arrays.binarySearch(terms, token);
+        if (exact >= 0) {
+            expansions.add(new Expansion(exact, 1f));
+        }
+
+        if (allowPrefix) {
+            int start = exact >= 0 ? exact + 1 : -exact - 1;
+            for (int i = start; i < terms.length && terms[i].startsWith(token)
+                    && expansions.size() < MAX_PREFIX_EXPANSIONS; i++) {
+                expansions.add(new Expansion(i, PREFIX_FACTOR));
+            }
+        }
+
+        if (expansions.isEmpty() && token.length() >= MIN_FUZZY_LENGTH) {
+            // Typo tolerance: one edit away, restricted to terms sharing the first character
+            String first = token.substring(0, 1);
+            int found = Arrays.binarySearch(terms, first);
+            int start = found >= 0 ? found : -found - 1;
+            for (int i = start; i < terms.length && terms[i].startsWith(first); i++) {
+                if (withinOneEdit(token, terms[i])) {
+                    expansions.add(new Expansion(i, FUZZY_FACTOR));
+                }
+            }
+        }
+        return expansions;
+    }
+
+    private static void addField(Map<String, Float> termWeights, String text, float fieldWeight) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokenize(text)) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        // Log-damped term frequency keeps long content from drowning out a name match
+        frequencies.forEach((token, frequency) ->
+            termWeights.merge(token, fieldWeight * (1f + (float) Math.log(frequency)), Float::sum));
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean withinOneEdit(String a, String b) {
+        if (Math.abs(a.length() - b.length()) > 1) {
+            return false;
+        }
+        int i = 0;
+        int j = 0;
+        boolean edited = false;
+        while (i < a.length() && j < b.length()) {
+            if (a.charAt(i) == b.charAt(j)) {
+                i++;
+                j++;
+                continue;
+            }
+            if (edited) {
+                return false;
+            }
+            edited = true;
+            if (a.length() > b.length()) {
+                i++;
+            } else if (a.length() < b.length()) {
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return !edited || (i == a.length() && j == b.length());
+    }
+
+    private static final class Expansion {
+        private final int term;
+        private final float factor;
+
+        private Expansion(int term, float factor) {
+            this.term = term;
+            this.factor = factor;
+        }
+    }
+
+    private static final class PostingBuilder {
+        private int[] docs = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        private void add(int doc, float weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.optimize25.backend.service;
 
+import com.optimize25.backend.dto.KnowledgeNodeSummaryDTO;
+import com.optimize25.backend.dto.SiblingOrder;
+import com.optimize25.backend.dto.SubtreeNodeDTO;
+import com.optimize25.backend.dto.SubtreeRow;
+import com.optimize25.backend.dto.TreeNodeDTO;
 import com.optimize25.backend.model.KnowledgeNode;
 import com.optimize25.backend.repository.KnowledgeNodeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.stream.Collectors;
-import java.util.ArrayList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import jakarta.persistence.EntityManager;
@@ -17,30 +25,102 @@ import jakarta.persistence.EntityManager;
 public class KnowledgeTreeService {
 
     private final KnowledgeNodeRepository repository;
+    private final KnowledgeTreeSnapshotService snapshotService;
+    private final ApplicationEventPublisher eventPublisher;
     private static final Logger logger = LoggerFactory.getLogger(KnowledgeTreeService.class);
+    private static final int MAX_SUBTREE_DEPTH = 20;
+    private static final int MAX_SEARCH_RESULTS = 100;
 
     @Autowired
     private EntityManager entityManager;
 
     @Autowired
-    public KnowledgeTreeService(KnowledgeNodeRepository repository) {
+    public KnowledgeTreeService(KnowledgeNodeRepository repository,
+                                KnowledgeTreeSnapshotService snapshotService,
+                                ApplicationEventPublisher eventPublisher) {
         this.repository = repository;
+        this.snapshotService = snapshotService;
+        this.eventPublisher = eventPublisher;
     }
 
-    public List<KnowledgeNode> getRootNodes() {
-        return repository.findByParentIsNull();
+    // Tree reads are served from the in-memory snapshot without touching the database
+    public List<KnowledgeNodeSummaryDTO> getRootNodes() {
+        return snapshotService.current().getRoots();
     }
 
-    public List<KnowledgeNode> getChildren(Long parentId) {
-        return repository.findByParentId(parentId);
+    public List<KnowledgeNodeSummaryDTO> getChildren(Long parentId) {
+        return snapshotService.current().getChildren(parentId);
     }
 
-    public List<KnowledgeNode> searchNodes(String query) {
-        return repository.findByNameContainingIgnoreCase(query);
+    public List<KnowledgeNodeSummaryDTO> searchNodes(String query, int limit) {
+        return snapshotService.current().search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
     }
 
-    public Optional<KnowledgeNode> getNode(Long id) {
-        return repository.findById(id);
+    public Optional<KnowledgeNodeSummaryDTO> getNode(Long id) {
+        return snapshotService.current().getNode(id);
+    }
+
+    public Optional<TreeNodeDTO> getNodeDetail(Long id) {
+        return snapshotService.current().getDetail(id);
+    }
+
+    public Optional<SubtreeNodeDTO> getSubtree(Long id, int depth) {
+        int maxDepth = Math.max(0, Math.min(depth, MAX_SUBTREE_DEPTH));
+        List<SubtreeRow> rows = repository.findSubtree(id, maxDepth);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Rows arrive parents-first, so each row can be attached to an already-built parent
+        Map<Long, SubtreeNodeDTO> nodesById = new HashMap<>(rows.size() * 2);
+        SubtreeNodeDTO root = null;
+        for (SubtreeRow row : rows) {
+            SubtreeNodeDTO node = new SubtreeNodeDTO(row);
+            nodesById.put(node.getId(), node);
+            if (root == null) {
+                root = node;
+            } else {
+                nodesById.get(node.getParentId()).addChild(node);
+            }
+        }
+        return Optional.of(root);
+    }
+
+    public List<KnowledgeNodeSummaryDTO> getAncestors(Long id) {
+        return snapshotService.current().getAncestors(id);
+    }
+
+    // Versions of what each read returns, bumped only when that part of the tree changes
+    public long getRootsVersion() {
+        return snapshotService.current().getRootsVersion();
+    }
+
+    public long getChildrenVersion(Long parentId) {
+        return snapshotService.current().getChildrenVersion(parentId);
+    }
+
+    public long getSearchVersion() {
+        return snapshotService.current().getVersion();
+    }
+
+    public OptionalLong getNodeVersion(Long id) {
+        return snapshotService.current().getNodeVersion(id);
+    }
+
+    public OptionalLong getSubtreeVersion(Long id) {
+        return snapshotService.current().getSubtreeVersion(id);
+    }
+
+    public OptionalLong getAncestorsVersion(Long id) {
+        return snapshotService.current().getAncestorsVersion(id);
+    }
+
+    public long countDescendants(Long id) {
+        return repository.countDescendants(id);
+    }
+
+    public Map<String, Object> verifySnapshot() {
+        return snapshotService.verify();
     }
 
     @Transactional
@@ -57,6 +137,10 @@ public class KnowledgeTreeService {
             }
             logger.info("Found parent node: {}", parent.getName());
             
+            // Set the node order before linking the node, so it is not among the siblings it is ranked after
+            node.setNodeOrder(appendRank(parent.getId()));
+            logger.info("Set node order to: {}", node.getNodeOrder());
+            
             // Set the parent and update the relationship
             node.setParent(parent);
             parent.addChild(node);
@@ -65,10 +149,6 @@ public class KnowledgeTreeService {
             node.setLevel(parent.getLevel() + 1);
             logger.info("Set node level to: {}", node.getLevel());
             
-            // Set the node order
-            node.setNodeOrder((int) (repository.countByParent(parent) + 1));
-            logger.info("Set node order to: {}", node.getNodeOrder());
-            
             // Save the parent to update the relationship
             entityManager.merge(parent);
         } else {
@@ -76,7 +156,7 @@ public class KnowledgeTreeService {
             logger.info("Creating root node");
             node.setParent(null);
             node.setLevel(0);
-            node.setNodeOrder((int) (repository.countByParent(null) + 1));
+            node.setNodeOrder(appendRank(null));
         }
         
         // Save the new node
@@ -85,6 +165,7 @@ public class KnowledgeTreeService {
             savedNode.getId(), 
             savedNode.getParent() != null ? savedNode.getParent().getId() : "null", 
             savedNode.getLevel());
+        eventPublisher.publishEvent(new KnowledgeTreeChangedEvent("create"));
         
         return savedNode;
     }
@@ -127,33 +208,21 @@ public class KnowledgeTreeService {
             logger.info("Parent is changing for node {} (Current: {}, New: {})", 
                 nodeId, currentParentId, newParentId);
 
-            // First, handle the old parent relationship
-            if (currentParentId != null) {
-                KnowledgeNode oldParent = entityManager.find(KnowledgeNode.class, currentParentId);
-                if (oldParent != null) {
-                    oldParent.getChildren().removeIf(child -> child.getId().equals(nodeId));
-                    entityManager.merge(oldParent);
-                    entityManager.flush();
-                    
-                    // Reorder siblings in old parent
-                    reorderSiblings(currentParentId);
-                }
-            }
+            String oldDescendantPrefix = workingNode.getDescendantPathPrefix();
+            int oldLevel = workingNode.getLevel();
 
-            // Then handle the new parent relationship
+            // Re-parent directly; removing the node from the old parent's children
+            // collection would make orphanRemoval delete it on flush
             if (newParentId != null) {
                 KnowledgeNode newParent = entityManager.find(KnowledgeNode.class, newParentId);
                 if (newParent == null) {
                     throw new RuntimeException("New parent node not found: " + newParentId);
                 }
+                if (newParent.getDescendantPathPrefix().startsWith(oldDescendantPrefix)) {
+                    throw new RuntimeException("Cannot move node " + nodeId + " into its own subtree");
+                }
                 workingNode.setParent(newParent);
                 workingNode.setLevel(newParent.getLevel() + 1);
-                
-                // Add to new parent's children
-                if (!newParent.getChildren().contains(workingNode)) {
-                    newParent.addChild(workingNode);
-                }
-                entityManager.merge(newParent);
             } else {
                 workingNode.setParent(null);
                 workingNode.setLevel(0);
@@ -161,43 +230,27 @@ public class KnowledgeTreeService {
             
             workingNode = entityManager.merge(workingNode);
             entityManager.flush();
+
+            // Re-root the whole subtree's ancestry paths and levels in one statement
+            int movedDescendants = repository.moveDescendants(oldDescendantPrefix,
+                workingNode.getDescendantPathPrefix(), workingNode.getLevel() - oldLevel);
+            logger.info("Moved {} descendants along with node {}", movedDescendants, nodeId);
+
         }
 
-        // Handle reordering if needed
-        if (updatedNode.getNodeOrder() != null) {
-            logger.info("Reordering node {} to position {} within same parent", nodeId, updatedNode.getNodeOrder());
-            
-            List<KnowledgeNode> siblings;
-            if (workingNode.getParent() != null) {
-                siblings = repository.findByParentId(workingNode.getParent().getId());
-            } else {
-                siblings = repository.findByParentIsNull();
-            }
-            
-            // Sort siblings by current order
-            siblings.sort((a, b) -> {
-                if (a.getNodeOrder() == null) return -1;
-                if (b.getNodeOrder() == null) return 1;
-                return a.getNodeOrder().compareTo(b.getNodeOrder());
-            });
-            
-            // Remove the node from its current position
-            siblings.removeIf(node -> node.getId().equals(nodeId));
-            
-            // Insert at the new position
-            int targetPosition = Math.min(updatedNode.getNodeOrder(), siblings.size());
-            siblings.add(targetPosition, workingNode);
-            
-            // Update all node orders sequentially
-            for (int i = 0; i < siblings.size(); i++) {
-                KnowledgeNode sibling = siblings.get(i);
-                sibling.setNodeOrder(i);
-                entityManager.merge(sibling);
-            }
-            
+        // Place the node among its siblings; nodeOrder in the request is the target position.
+        // Only the moved row is written unless its neighbours have no gap left between them
+        if (updatedNode.getNodeOrder() != null || isParentChange) {
+            Long parentId = workingNode.getParent() != null ? workingNode.getParent().getId() : null;
+            int position = updatedNode.getNodeOrder() != null ? updatedNode.getNodeOrder() : Integer.MAX_VALUE;
+            logger.info("Moving node {} to position {} under parent {}", nodeId, position, parentId);
+
+            workingNode.setNodeOrder(rankForPosition(parentId, nodeId, position));
             entityManager.flush();
         }
 
+        eventPublisher.publishEvent(new KnowledgeTreeChangedEvent("update"));
+
         // Final verification and return
         entityManager.clear();
         KnowledgeNode result = entityManager.find(KnowledgeNode.class, nodeId);
@@ -207,97 +260,90 @@ public class KnowledgeTreeService {
         return result;
     }
 
-    private void reorderSiblings(Long parentId) {
-        List<KnowledgeNode> siblings;
-        if (parentId != null) {
-            siblings = repository.findByParentId(parentId);
+    private int rankForPosition(Long parentId, Long nodeId, int position) {
+        List<SiblingOrder> siblings = siblingOrders(parentId).stream()
+            .filter(sibling -> !sibling.getId().equals(nodeId))
+            .collect(Collectors.toList());
+        int index = Math.max(0, Math.min(position, siblings.size()));
+        Integer previous = index > 0 ? siblings.get(index - 1).getNodeOrder() : null;
+        Integer next = index < siblings.size() ? siblings.get(index).getNodeOrder() : null;
+
+        Long rank;
+        if (siblings.isEmpty()) {
+            rank = (long) KnowledgeNode.ORDER_GAP;
+        } else if (index == 0) {
+            rank = next != null ? (long) next - KnowledgeNode.ORDER_GAP : null;
+        } else if (index == siblings.size()) {
+            rank = previous != null ? (long) previous + KnowledgeNode.ORDER_GAP : null;
         } else {
-            siblings = repository.findByParentIsNull();
+            rank = previous != null && next != null && (long) next - previous > 1
+                ? previous + ((long) next - previous) / 2
+                : null;
         }
-        
-        // Sort by current order
-        siblings.sort((a, b) -> {
-            if (a.getNodeOrder() == null) return -1;
-            if (b.getNodeOrder() == null) return 1;
-            return a.getNodeOrder().compareTo(b.getNodeOrder());
-        });
-        
-        // Update orders sequentially
-        for (int i = 0; i < siblings.size(); i++) {
-            siblings.get(i).setNodeOrder(i);
+
+        if (rank == null || rank <= Integer.MIN_VALUE || rank >= Integer.MAX_VALUE) {
+            // Out of room: respace the other siblings, then take the middle of the freed gap
+            int rebalanced = repository.rebalanceChildren(parentId, nodeId, KnowledgeNode.ORDER_GAP);
+            logger.info("Rebalanced {} siblings under parent {}", rebalanced, parentId);
+            return index * KnowledgeNode.ORDER_GAP + KnowledgeNode.ORDER_GAP / 2;
         }
-        repository.saveAll(siblings);
-        entityManager.flush();
+        return rank.intValue();
     }
 
-    @Transactional
-    public void deleteNode(Long id) {
-        repository.findById(id).ifPresent(node -> {
-            logger.info("Deleting node: {} (ID: {})", node.getName(), node.getId());
-            
-            // If this is a child node, remove it from parent's children
-            if (node.getParent() != null) {
-                logger.info("Removing node from parent's children list");
-                node.getParent().getChildren().remove(node);
-                
-                // Reorder remaining siblings
-                List<KnowledgeNode> siblings = repository.findByParentId(node.getParent().getId());
-                siblings.remove(node);
-                for (int i = 0; i < siblings.size(); i++) {
-                    siblings.get(i).setNodeOrder(i);
-                }
-                repository.saveAll(siblings);
-            }
-            
-            // Delete all children recursively
-            if (node.getChildren() != null && !node.getChildren().isEmpty()) {
-                logger.info("Deleting {} child nodes", node.getChildren().size());
-                deleteChildrenRecursively(node);
-            }
-            
-            // Finally delete the node itself
-            repository.delete(node);
-            logger.info("Node deleted successfully");
-        });
+    private int appendRank(Long parentId) {
+        return repository.appendBaseRank(parentId, 1) + KnowledgeNode.ORDER_GAP;
     }
 
-    private void deleteChildrenRecursively(KnowledgeNode parent) {
-        List<KnowledgeNode> children = new ArrayList<>(parent.getChildren());
-        for (KnowledgeNode child : children) {
-            if (child.getChildren() != null && !child.getChildren().isEmpty()) {
-                deleteChildrenRecursively(child);
-            }
-            repository.delete(child);
-            logger.info("Deleted child node: {} (ID: {})", child.getName(), child.getId());
+    private List<SiblingOrder> siblingOrders(Long parentId) {
+        return parentId != null ? repository.findChildOrders(parentId) : repository.findRootOrders();
+    }
+
+    // Removes the node and its whole subtree; returns the number of deleted rows
+    @Transactional
+    public int deleteNode(Long id) {
+        KnowledgeNode node = repository.findById(id).orElse(null);
+        if (node == null) {
+            return 0;
         }
-        parent.getChildren().clear();
+
+        // Remaining siblings keep their sparse ranks, so nothing needs renumbering
+        int deleted = repository.deleteSubtree(node);
+        logger.info("Deleted node {} (ID: {}) and its subtree, {} rows in total", node.getName(), id, deleted);
+
+        eventPublisher.publishEvent(new KnowledgeTreeChangedEvent("delete"));
+        return deleted;
     }
 
+    // Transactional: setParent adds the node to the parent's lazily loaded children
+    @Transactional
     public KnowledgeNode createNodeWithParent(String name, Long parentId) {
         KnowledgeNode parent = repository.findById(parentId)
             .orElseThrow(() -> new RuntimeException("Parent node not found"));
 
         KnowledgeNode newNode = new KnowledgeNode();
         newNode.setName(name);
+        // Append after the current last child; ranked before it is linked to the parent, so a
+        // flush cannot add it to the siblings it is ranked after
+        newNode.setNodeOrder(appendRank(parentId));
         newNode.setParent(parent);
         newNode.setLevel(parent.getLevel() + 1);
-        
-        // Set node_order to be the next available number for this parent
-        Integer maxOrder = repository.findMaxNodeOrderByParentId(parentId);
-        newNode.setNodeOrder(maxOrder != null ? maxOrder + 1 : 1);
 
-        return repository.save(newNode);
+        KnowledgeNode savedNode = repository.save(newNode);
+        eventPublisher.publishEvent(new KnowledgeTreeChangedEvent("create"));
+        return savedNode;
     }
 
+    @Transactional
     public KnowledgeNode createNode(String name) {
         KnowledgeNode newNode = new KnowledgeNode();
         newNode.setName(name);
         newNode.setLevel(0);
         
-        // Set node_order to be the next available number for root nodes
-        Integer maxOrder = repository.findMaxNodeOrderByParentId(null);
-        newNode.setNodeOrder(maxOrder != null ? maxOrder + 1 : 1);
+        // Append after the current last root node
+        newNode.setNodeOrder(appendRank(null));
 
-        return repository.save(newNode);
+        KnowledgeNode savedNode = repository.save(newNode);
+        eventPublisher.publishEvent(new KnowledgeTreeChangedEvent("create"));
+        return savedNode;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,310 @@
+package com.optimize25.backend.service;
+
+import com.optimize25.backend.dto.KnowledgeNodeRow;
+import com.optimize25.backend.dto.KnowledgeNodeSummaryDTO;
+import com.optimize25.backend.dto.TreeNodeDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+// Immutable, read-optimized copy of the whole knowledge tree. Nodes are addressed by their
+// position in the id-sorted ids array; parent, children and order are plain arrays over that index.
+public final class KnowledgeTreeSnapshot {
+
+    private final long version;
+    private final long[] ids;
+    private final int[] parents;
+    private final int[][] children;
+    private final int[] orders;
+    private final int[] roots;
+    private final TreeNodeDTO[] nodes;
+    private final KnowledgeNodeSummaryDTO[] summaries;
+    private final KnowledgeTreeSearchIndex searchIndex;
+    // Normalized name (see QuizCache.normalize) to node index; the lowest id wins a shared name
+    private final Map<String, Integer> indexesByName;
+    // Snapshot version in which each node, or anything below it, last changed
+    private final long[] nodeVersions;
+    private final long[] subtreeVersions;
+    private final long rootsVersion;
+
+    private KnowledgeTreeSnapshot(long version, long[] ids, int[] parents, int[][] children,
+                                  int[] orders, int[] roots, TreeNodeDTO[] nodes,
+                                  KnowledgeTreeSnapshot previous) {
+        this.version = version;
+        this.ids = ids;
+        this.parents = parents;
+        this.children = children;
+        this.orders = orders;
+        this.roots = roots;
+        this.nodes = nodes;
+        this.nodeVersions = new long[nodes.length];
+        this.subtreeVersions = new long[nodes.length];
+        this.rootsVersion = assignVersions(previous);
+        this.summaries = new KnowledgeNodeSummaryDTO[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            summaries[i] = new KnowledgeNodeSummaryDTO(nodes[i]);
+        }
+        // Built with the snapshot so search never sees a different tree than the read endpoints
+        this.searchIndex = KnowledgeTreeSearchIndex.build(nodes);
+        this.indexesByName = new HashMap<>(nodes.length * 2);
+        for (int i = 0; i < nodes.length; i++) {
+            indexesByName.putIfAbsent(QuizCache.normalize(nodes[i].getName()), i);
+        }
+    }
+
+    public static KnowledgeTreeSnapshot build(long version, List<KnowledgeNodeRow> rows) {
+        return build(version, rows, null);
+    }
+
+    // Nodes that are unchanged since the previous snapshot keep their versions, so cached
+    // reads of untouched parts of the tree stay valid across refreshes
+    public static KnowledgeTreeSnapshot build(long version, List<KnowledgeNodeRow> rows,
+                                              KnowledgeTreeSnapshot previous) {
+        List<KnowledgeNodeRow> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparing(KnowledgeNodeRow::getId));
+
+        int size = sorted.size();
+        long[] ids = new long[size];
+        int[] orders = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = sorted.get(i).getId();
+            Integer order = sorted.get(i).getNodeOrder();
+            // Null orders sort first, matching the sibling sort in KnowledgeTreeService
+            orders[i] = order != null ? order : Integer.MIN_VALUE;
+        }
+
+        int[] parents = new int[size];
+        int[] childCounts = new int[size];
+        int rootCount = 0;
+        for (int i = 0; i < size; i++) {
+            Long parentId = sorted.get(i).getParentId();
+            parents[i] = parentId != null ? Arrays.binarySearch(ids, parentId) : -1;
+            if (parents[i] >= 0) {
+                childCounts[parents[i]]++;
+            } else {
+                rootCount++;
+            }
+        }
+
+        int[][] children = new int[size][];
+        for (int i = 0; i < size; i++) {
+            children[i] = new int[childCounts[i]];
+        }
+        int[] roots = new int[rootCount];
+        int[] fill = new int[size];
+        int rootFill = 0;
+        for (int i = 0; i < size; i++) {
+            if (parents[i] >= 0) {
+                children[parents[i]][fill[parents[i]]++] = i;
+            } else {
+                roots[rootFill++] = i;
+            }
+        }
+
+        sortByOrder(roots, orders);
+        for (int[] siblings : children) {
+            sortByOrder(siblings, orders);
+        }
+
+        TreeNodeDTO[] nodes = new TreeNodeDTO[size];
+        for (int i = 0; i < size; i++) {
+            List<Long> childIds = new ArrayList<>(children[i].length);
+            for (int child : children[i]) {
+                childIds.add(ids[child]);
+            }
+            nodes[i] = new TreeNodeDTO(sorted.get(i), childIds);
+        }
+
+        return new KnowledgeTreeSnapshot(version, ids, parents, children, orders, roots, nodes, previous);
+    }
+
+    private long assignVersions(KnowledgeTreeSnapshot previous) {
+        boolean[] changed = new boolean[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            int j = previous != null ? previous.indexOf(ids[i]) : -1;
+            // A node whose own fields or child list changed counts as changed; that covers
+            // inserts, deletes and moves underneath it too
+            changed[i] = j < 0 || !sameNode(nodes[i], previous.nodes[j]);
+            nodeVersions[i] = changed[i] ? version : previous.nodeVersions[j];
+            subtreeVersions[i] = changed[i] ? version : previous.subtreeVersions[j];
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            if (!changed[i]) {
+                continue;
+            }
+            for (int p = parents[i]; p >= 0 && subtreeVersions[p] != version; p = parents[p]) {
+                subtreeVersions[p] = version;
+            }
+        }
+
+        if (previous == null || previous.roots.length != roots.length) {
+            return version;
+        }
+        for (int r = 0; r < roots.length; r++) {
+            if (ids[roots[r]] != previous.ids[previous.roots[r]] || changed[roots[r]]) {
+                return version;
+            }
+        }
+        return previous.rootsVersion;
+    }
+
+    private static boolean sameNode(TreeNodeDTO mine, TreeNodeDTO theirs) {
+        return Objects.equals(mine.getParentId(), theirs.getParentId())
+            && Objects.equals(mine.getNodeOrder(), theirs.getNodeOrder())
+            && Objects.equals(mine.getLevel(), theirs.getLevel())
+            && Objects.equals(mine.getChildIds(), theirs.getChildIds())
+            && Objects.equals(mine.getName(), theirs.getName())
+            && Objects.equals(mine.getDescription(), theirs.getDescription())
+            && Objects.equals(mine.getContent(), theirs.getContent())
+            && Objects.equals(mine.getExamples(), theirs.getExamples())
+            && Objects.equals(mine.getReferences(), theirs.getReferences());
+    }
+
+    private static void sortByOrder(int[] indexes, int[] orders) {
+        // Indexes are already ascending by id, so a stable sort on order breaks ties by id
+        Integer[] boxed = Arrays.stream(indexes).boxed().toArray(Integer[]::new);
+        Arrays.sort(boxed, Comparator.comparingInt(index -> orders[index]));
+        for (int i = 0; i < boxed.length; i++) {
+            indexes[i] = boxed[i];
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public List<KnowledgeNodeSummaryDTO> getRoots() {
+        return toSummaries(roots);
+    }
+
+    public List<KnowledgeNodeSummaryDTO> getChildren(Long parentId) {
+        int index = indexOf(parentId);
+        return index >= 0 ? toSummaries(children[index]) : Collections.emptyList();
+    }
+
+    public Optional<KnowledgeNodeSummaryDTO> getNode(Long id) {
+        int index = indexOf(id);
+        return index >= 0 ? Optional.of(summaries[index]) : Optional.empty();
+    }
+
+    public Optional<TreeNodeDTO> getDetail(Long id) {
+        int index = indexOf(id);
+        return index >= 0 ? Optional.of(nodes[index]) : Optional.empty();
+    }
+
+    // Exact name match, ignoring case and spacing
+    public Optional<KnowledgeNodeSummaryDTO> findByName(String name) {
+        Integer index = indexesByName.get(QuizCache.normalize(name));
+        return index != null ? Optional.of(summaries[index]) : Optional.empty();
+    }
+
+    public List<KnowledgeNodeSummaryDTO> search(String query, int limit) {
+        return toSummaries(searchIndex.search(query, limit));
+    }
+
+    public Long getParentId(Long id) {
+        int index = indexOf(id);
+        return index >= 0 && parents[index] >= 0 ? ids[parents[index]] : null;
+    }
+
+    // Breadcrumb from the root down to the node's parent
+    public List<KnowledgeNodeSummaryDTO> getAncestors(Long id) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return Collections.emptyList();
+        }
+        List<KnowledgeNodeSummaryDTO> ancestors = new ArrayList<>();
+        for (int p = parents[index]; p >= 0; p = parents[p]) {
+            ancestors.add(summaries[p]);
+        }
+        Collections.reverse(ancestors);
+        return Collections.unmodifiableList(ancestors);
+    }
+
+    public long getRootsVersion() {
+        return rootsVersion;
+    }
+
+    // A child listing shows the parent's child list and each child's own fields
+    public long getChildrenVersion(Long parentId) {
+        int index = indexOf(parentId);
+        if (index < 0) {
+            return version;
+        }
+        long latest = nodeVersions[index];
+        for (int child : children[index]) {
+            latest = Math.max(latest, nodeVersions[child]);
+        }
+        return latest;
+    }
+
+    public OptionalLong getNodeVersion(Long id) {
+        int index = indexOf(id);
+        return index >= 0 ? OptionalLong.of(nodeVersions[index]) : OptionalLong.empty();
+    }
+
+    public OptionalLong getSubtreeVersion(Long id) {
+        int index = indexOf(id);
+        return index >= 0 ? OptionalLong.of(subtreeVersions[index]) : OptionalLong.empty();
+    }
+
+    public OptionalLong getAncestorsVersion(Long id) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return OptionalLong.empty();
+        }
+        long latest = nodeVersions[index];
+        for (int p = parents[index]; p >= 0; p = parents[p]) {
+            latest = Math.max(latest, nodeVersions[p]);
+        }
+        return OptionalLong.of(latest);
+    }
+
+    // Lists node-level differences against another snapshot, e.g. one freshly loaded from the database
+    public List<String> differencesFrom(KnowledgeTreeSnapshot other, int limit) {
+        List<String> differences = new ArrayList<>();
+        for (int i = 0; i < ids.length && differences.size() < limit; i++) {
+            int j = other.indexOf(ids[i]);
+            if (j < 0) {
+                differences.add("Node " + ids[i] + " is not in the database");
+                continue;
+            }
+            if (!sameNode(nodes[i], other.nodes[j])) {
+                differences.add("Node " + ids[i] + " differs from the database");
+            }
+        }
+        for (int j = 0; j < other.ids.length && differences.size() < limit; j++) {
+            if (indexOf(other.ids[j]) < 0) {
+                differences.add("Node " + other.ids[j] + " is missing from the snapshot");
+            }
+        }
+        return differences;
+    }
+
+    private int indexOf(Long id) {
+        if (id == null) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? index : -1;
+    }
+
+    private List<KnowledgeNodeSummaryDTO> toSummaries(int[] indexes) {
+        List<KnowledgeNodeSummaryDTO> result = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            result.add(summaries[index]);
+        }
+        return Collections.unmodifiableList(result);
+    }
+}
@@ -0,0 +1,162 @@
+package com.optimize25.backend.service;
+
+import com.optimize25.backend.repository.KnowledgeNodeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Holds the current KnowledgeTreeSnapshot and reloads it when the tree changes. Reloads never run
+// on the thread that wrote: a commit here, or a change reported by KnowledgeTreeChangeListener (a
+// write on another instance), schedules one reload on the task scheduler after a short debounce, and any
+// further changes before it starts ride along with it. Reads never wait for another thread's
+// write: they are served from the snapshot in hand. Only a thread that committed a change itself
+// waits, for at most max-wait, for the reload carrying it, so it reads its own write.
+@Service
+public class KnowledgeTreeSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnowledgeTreeSnapshotService.class);
+    private static final int MAX_REPORTED_DIFFERENCES = 50;
+
+    private final KnowledgeNodeRepository repository;
+    private final TaskScheduler taskScheduler;
+    private final Duration debounce;
+    private final Duration maxWait;
+    // The reload that will carry this thread's last committed change
+    private final ThreadLocal<CompletableFuture<KnowledgeTreeSnapshot>> ownChange = new ThreadLocal<>();
+    private final AtomicReference<KnowledgeTreeSnapshot> current = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<KnowledgeTreeSnapshot>> pendingRefresh = new AtomicReference<>();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private long nextVersion = 1;
+
+    @Autowired
+    public KnowledgeTreeSnapshotService(KnowledgeNodeRepository repository,
+                                        TaskScheduler taskScheduler,
+                                        @Value("${knowledge-tree.snapshot.debounce:50ms}") Duration debounce,
+                                        @Value("${knowledge-tree.snapshot.max-wait:2s}") Duration maxWait) {
+        this.repository = repository;
+        this.taskScheduler = taskScheduler;
+        this.debounce = debounce;
+        this.maxWait = maxWait;
+    }
+
+    public KnowledgeTreeSnapshot current() {
+        CompletableFuture<KnowledgeTreeSnapshot> pending = ownChange.get();
+        if (pending != null) {
+            ownChange.remove();
+            try {
+                // Done already on a thread that wrote long ago; the current snapshot is newer
+                pending.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // Logged by the reload; serve the previous tree until the next one succeeds
+            } catch (TimeoutException e) {
+                logger.warn("Knowledge tree snapshot reload took longer than {}; serving the previous tree", maxWait);
+            }
+        }
+        KnowledgeTreeSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    // Serialized so a slower refresh can never publish an older tree over a newer one. A lock
+    // rather than synchronized, since the query inside would pin a virtual thread's carrier.
+    public KnowledgeTreeSnapshot refresh() {
+        refreshLock.lock();
+        try {
+            long startTime = System.currentTimeMillis();
+            KnowledgeTreeSnapshot snapshot = KnowledgeTreeSnapshot.build(nextVersion++, repository.findAllRows(), current.get());
+            current.set(snapshot);
+            logger.info("Loaded knowledge tree snapshot v{} with {} nodes in {} ms",
+                snapshot.getVersion(), snapshot.size(), System.currentTimeMillis() - startTime);
+            return snapshot;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTreeChanged(KnowledgeTreeChangedEvent event) {
+        // Nothing to refresh before the first load, e.g. while a command-line import runs;
+        // current() loads the tree on first use
+        if (current.get() == null) {
+            return;
+        }
+        logger.debug("Knowledge tree changed ({}), scheduling a snapshot reload", event.getReason());
+        ownChange.set(scheduleRefresh());
+    }
+
+    // A change committed by another instance, or straight to the database; a reload that has not
+    // started yet already covers it
+    public void onExternalChange() {
+        if (current.get() == null) {
+            return;
+        }
+        logger.debug("Knowledge tree changed in the database, scheduling a snapshot reload");
+        scheduleRefresh();
+    }
+
+    // Joins the reload already waiting to start, if there is one, and returns it. A pending
+    // reload has not read anything yet, so it carries every change committed before this call.
+    private CompletableFuture<KnowledgeTreeSnapshot> scheduleRefresh() {
+        CompletableFuture<KnowledgeTreeSnapshot> reload = new CompletableFuture<>();
+        while (true) {
+            if (pendingRefresh.compareAndSet(null, reload)) {
+                taskScheduler.schedule(this::runPendingRefresh, Instant.now().plus(debounce));
+                return reload;
+            }
+            CompletableFuture<KnowledgeTreeSnapshot> pending = pendingRefresh.get();
+            if (pending != null) {
+                return pending;
+            }
+            // It started loading in between; schedule a new one
+        }
+    }
+
+    private void runPendingRefresh() {
+        // Cleared before loading, so a change committed from here on schedules another reload
+        CompletableFuture<KnowledgeTreeSnapshot> reload = pendingRefresh.getAndSet(null);
+        try {
+            reload.complete(refresh());
+        } catch (Exception e) {
+            logger.error("Knowledge tree snapshot reload failed", e);
+            reload.completeExceptionally(e);
+        }
+    }
+
+    public Map<String, Object> verify() {
+        KnowledgeTreeSnapshot snapshot = current();
+        KnowledgeTreeSnapshot database = KnowledgeTreeSnapshot.build(snapshot.getVersion(), repository.findAllRows());
+        List<String> differences = snapshot.differencesFrom(database, MAX_REPORTED_DIFFERENCES);
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("version", snapshot.getVersion());
+        report.put("snapshotNodes", snapshot.size());
+        report.put("databaseNodes", database.size());
+        report.put("consistent", differences.isEmpty());
+        report.put("differences", differences);
+        return report;
+    }
+}
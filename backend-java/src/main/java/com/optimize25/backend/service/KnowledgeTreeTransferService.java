@@ -0,0 +1,279 @@
+package com.optimize25.backend.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.optimize25.backend.model.KnowledgeNode;
+import com.optimize25.backend.repository.KnowledgeNodeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Moves whole trees or subtrees in and out as a stream of flat node records, parents before
+// children, each naming its parent by id:
+//   {"id":7,"parentId":6,"name":"...","description":"...","content":"...","examples":"...","references":"...","nodeOrder":1024}
+// Export reads through a database cursor and import stages rows in a temporary table, so
+// neither holds more than one batch of nodes in memory however large the tree is.
+@Service
+public class KnowledgeTreeTransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnowledgeTreeTransferService.class);
+    private static final int FETCH_SIZE = 1000;
+    private static final int IMPORT_BATCH_SIZE = 1000;
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private static final String EXPORT_COLUMNS =
+        "SELECT id, parent_id, name, description, content, examples, reference_links, node_order " +
+        "FROM public.knowledge_nodes ";
+    // A node's path extends its parent's, so path order always puts parents first
+    private static final String EXPORT_ORDER = " ORDER BY path, node_order NULLS FIRST, id";
+
+    private static final String CREATE_STAGING =
+        "CREATE TEMPORARY TABLE knowledge_import (" +
+        "  seq BIGINT NOT NULL, source_id BIGINT NOT NULL, source_parent_id BIGINT," +
+        "  name VARCHAR(255) NOT NULL, description TEXT, content TEXT, examples TEXT, reference_links TEXT," +
+        "  node_order INTEGER, new_id BIGINT NOT NULL DEFAULT nextval('public.knowledge_nodes_id_seq')" +
+        ") ON COMMIT DROP";
+    private static final String INSERT_STAGING =
+        "INSERT INTO knowledge_import (seq, source_id, source_parent_id, name, description, content, " +
+        "examples, reference_links, node_order) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Nodes whose parent is not in the file become roots of the import, placed under the target
+    // parent after its existing children. Levels and paths are rebuilt from the new ids.
+    private static final String INSERT_NODES =
+        "WITH RECURSIVE tree AS (" +
+        "  SELECT i.source_id, i.new_id, TRUE AS is_root, CAST(? AS BIGINT) AS parent_id, ? AS level," +
+        "         CAST(? AS VARCHAR(1024)) AS path" +
+        "  FROM knowledge_import i" +
+        "  WHERE NOT EXISTS (SELECT 1 FROM knowledge_import p WHERE p.source_id = i.source_parent_id)" +
+        "  UNION ALL" +
+        "  SELECT c.source_id, c.new_id, FALSE, t.new_id, t.level + 1, CAST(t.path || t.new_id || '/' AS VARCHAR(1024))" +
+        "  FROM knowledge_import c JOIN tree t ON c.source_parent_id = t.source_id" +
+        ") " +
+        "INSERT INTO public.knowledge_nodes (id, name, description, content, examples, reference_links, " +
+        "parent_id, level, node_order, path) " +
+        "SELECT i.new_id, i.name, i.description, i.content, i.examples, i.reference_links, t.parent_id, t.level, " +
+        "  CAST(CASE WHEN t.is_root THEN ? + ROW_NUMBER() OVER (PARTITION BY t.is_root ORDER BY i.seq) * ?" +
+        "       ELSE COALESCE(i.node_order, ROW_NUMBER() OVER (PARTITION BY t.parent_id ORDER BY i.seq) * ?) END AS INTEGER)," +
+        "  t.path " +
+        "FROM tree t JOIN knowledge_import i ON i.source_id = t.source_id";
+
+    private final KnowledgeNodeRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public KnowledgeTreeTransferService(KnowledgeNodeRepository repository,
+                                        DataSource dataSource,
+                                        PlatformTransactionManager transactionManager,
+                                        ObjectMapper objectMapper,
+                                        ApplicationEventPublisher eventPublisher) {
+        this.repository = repository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // PostgreSQL only streams with a cursor inside a transaction
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Writes the whole tree, or the subtree under rootId, as NDJSON or as one JSON array.
+    // Returns the number of nodes written.
+    public long export(Long rootId, boolean jsonArray, OutputStream out) {
+        Long count = readOnlyTransactionTemplate.execute(status -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+                if (jsonArray) {
+                    generator.writeStartArray();
+                }
+                long[] written = {0};
+                if (rootId == null) {
+                    jdbcTemplate.query(EXPORT_COLUMNS + EXPORT_ORDER, rs -> {
+                        writeNode(generator, rs, null);
+                        written[0]++;
+                    });
+                } else {
+                    KnowledgeNode root = repository.findById(rootId)
+                        .orElseThrow(() -> new RuntimeException("Node not found with id: " + rootId));
+                    String prefix = root.getDescendantPathPrefix();
+                    jdbcTemplate.query(EXPORT_COLUMNS + "WHERE id = ? OR (path >= ? AND path < ?)" + EXPORT_ORDER, rs -> {
+                        writeNode(generator, rs, rootId);
+                        written[0]++;
+                    }, rootId, prefix, KnowledgeNodeRepository.pathUpperBound(prefix));
+                }
+                if (jsonArray) {
+                    generator.writeEndArray();
+                }
+                generator.writeRaw('\n');
+                return written[0];
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        logger.info("Exported {} knowledge nodes{}", count, rootId != null ? " under node " + rootId : "");
+        return count;
+    }
+
+    // Reads NDJSON, or a JSON array of the same records, and adds the nodes under parentId (or
+    // as new roots). Ids in the input only link the records to each other; every node gets a
+    // new id. Either the whole input is imported or, on any error, none of it is.
+    public long importNodes(InputStream in, Long parentId) {
+        long startTime = System.currentTimeMillis();
+        Long imported = transactionTemplate.execute(status -> {
+            int rootLevel = 0;
+            String rootPath = "/";
+            if (parentId != null) {
+                KnowledgeNode parent = repository.findById(parentId)
+                    .orElseThrow(() -> new IllegalArgumentException("Parent node not found with id: " + parentId));
+                rootLevel = parent.getLevel() + 1;
+                rootPath = parent.getDescendantPathPrefix();
+            }
+
+            jdbcTemplate.execute(CREATE_STAGING);
+            long staged = stage(in);
+            if (staged == 0) {
+                return 0L;
+            }
+            jdbcTemplate.execute("CREATE INDEX ON knowledge_import (source_id)");
+            jdbcTemplate.execute("CREATE INDEX ON knowledge_import (source_parent_id)");
+            jdbcTemplate.execute("ANALYZE knowledge_import");
+
+            List<Long> duplicates = jdbcTemplate.queryForList(
+                "SELECT source_id FROM knowledge_import GROUP BY source_id HAVING COUNT(*) > 1 LIMIT 1", Long.class);
+            if (!duplicates.isEmpty()) {
+                throw new IllegalArgumentException("Duplicate node id in import: " + duplicates.get(0));
+            }
+
+            // Room for every staged node, since any of them may be a root of the import
+            int baseOrder = repository.appendBaseRank(parentId, staged);
+            long inserted = jdbcTemplate.update(INSERT_NODES, parentId, rootLevel, rootPath,
+                baseOrder, KnowledgeNode.ORDER_GAP, KnowledgeNode.ORDER_GAP);
+            if (inserted != staged) {
+                throw new IllegalArgumentException((staged - inserted) +
+                    " nodes in the import are not connected to a root; check their parentId values for cycles");
+            }
+            eventPublisher.publishEvent(new KnowledgeTreeChangedEvent("import"));
+            return inserted;
+        });
+        logger.info("Imported {} knowledge nodes{} in {} ms", imported,
+            parentId != null ? " under node " + parentId : "", System.currentTimeMillis() - startTime);
+        return imported;
+    }
+
+    private long stage(InputStream in) {
+        long seq = 0;
+        List<Object[]> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Expected a node object at record " + (seq + 1));
+                }
+                // Any record may become a root of the import, and each root takes one rank gap
+                if (!KnowledgeNodeRepository.fitsRank(0, seq + 1)) {
+                    throw new IllegalArgumentException("Imports are limited to " + seq + " nodes");
+                }
+                JsonNode node = objectMapper.readTree(parser);
+                batch.add(toStagingRow(node, ++seq));
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    jdbcTemplate.batchUpdate(INSERT_STAGING, batch);
+                    batch.clear();
+                }
+                token = parser.nextToken();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unreadable import at record " + (seq + 1) + ": " + e.getMessage(), e);
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_STAGING, batch);
+        }
+        return seq;
+    }
+
+    private static Object[] toStagingRow(JsonNode node, long seq) {
+        if (!node.path("id").canConvertToLong()) {
+            throw new IllegalArgumentException("Record " + seq + " has no numeric id");
+        }
+        String name = text(node, "name");
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Record " + seq + " has no name");
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Record " + seq + " has a name longer than " + MAX_NAME_LENGTH + " characters");
+        }
+        JsonNode parent = node.path("parentId");
+        JsonNode order = node.path("nodeOrder");
+        return new Object[] {
+            seq,
+            node.get("id").asLong(),
+            parent.canConvertToLong() ? parent.asLong() : null,
+            name,
+            text(node, "description"),
+            text(node, "content"),
+            text(node, "examples"),
+            text(node, "references"),
+            order.canConvertToInt() ? order.asInt() : null
+        };
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    // The export root is written without its parent, so it can be imported anywhere
+    private static void writeNode(JsonGenerator generator, ResultSet rs, Long rootId) throws SQLException {
+        try {
+            long id = rs.getLong("id");
+            long parentId = rs.getLong("parent_id");
+            boolean hasParent = !rs.wasNull() && (rootId == null || id != rootId);
+            int nodeOrder = rs.getInt("node_order");
+            boolean hasOrder = !rs.wasNull();
+
+            generator.writeStartObject();
+            generator.writeNumberField("id", id);
+            if (hasParent) {
+                generator.writeNumberField("parentId", parentId);
+            } else {
+                generator.writeNullField("parentId");
+            }
+            generator.writeStringField("name", rs.getString("name"));
+            generator.writeStringField("description", rs.getString("description"));
+            generator.writeStringField("content", rs.getString("content"));
+            generator.writeStringField("examples", rs.getString("examples"));
+            generator.writeStringField("references", rs.getString("reference_links"));
+            if (hasOrder) {
+                generator.writeNumberField("nodeOrder", nodeOrder);
+            } else {
+                generator.writeNullField("nodeOrder");
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.optimize25.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.optimize25.backend.config.HttpClientMetrics;
+import com.optimize25.backend.config.OpenAiConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Streams chat completions (stream: true) without holding a thread per open stream: the JDK
+// client reads the response on its own selector and pushes each server-sent line to a subscriber.
+// This is the one OpenAI caller outside the pooled client in RestTemplateConfig, whose blocking
+// reads would tie up a connection per stream. It keeps the same limits: at most
+// openai.http.max-connections-per-route open streams, waiting up to openai.http.pool-timeout for
+// one to finish, and its exchanges are counted in HttpClientMetrics.
+@Component
+public class OpenAiStreamClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenAiStreamClient.class);
+    private static final String DATA_PREFIX = "data:";
+    private static final String DONE = "[DONE]";
+
+    private final OpenAiConfig openAiConfig;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final HttpClientMetrics httpClientMetrics;
+    private final Duration responseTimeout;
+    private final Semaphore openStreams;
+    private final Duration streamWaitTimeout;
+
+    public OpenAiStreamClient(OpenAiConfig openAiConfig,
+                              ObjectMapper objectMapper,
+                              HttpClientMetrics httpClientMetrics,
+                              @Value("${openai.http.connect-timeout:5s}") Duration connectTimeout,
+                              @Value("${openai.http.read-timeout:120s}") Duration responseTimeout,
+                              @Value("${openai.http.max-connections-per-route:20}") int maxOpenStreams,
+                              @Value("${openai.http.pool-timeout:10s}") Duration streamWaitTimeout) {
+        this.openAiConfig = openAiConfig;
+        this.objectMapper = objectMapper;
+        this.httpClientMetrics = httpClientMetrics;
+        this.responseTimeout = responseTimeout;
+        this.openStreams = new Semaphore(maxOpenStreams, true);
+        this.streamWaitTimeout = streamWaitTimeout;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .build();
+    }
+
+    // Calls onDelta with each content fragment as it arrives. The returned stream completes when
+    // OpenAI signals the end of the answer, fails on an error, and can be cancelled at any time.
+    public ChatStream streamChat(Map<String, Object> requestBody, Consumer<String> onDelta) {
+        Map<String, Object> body = new HashMap<>(requestBody);
+        body.put("stream", true);
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(openAiConfig.getOpenaiApiUrl()))
+            .timeout(responseTimeout)
+            .header(HttpHeaders.ACCEPT, "text/event-stream");
+        openAiConfig.openaiHeaders().forEach((name, values) -> values.forEach(value -> request.header(name, value)));
+        try {
+            request.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize chat request", e);
+        }
+
+        ChatStream stream = new ChatStream(onDelta);
+        if (!acquireStream()) {
+            stream.fail(new RuntimeException("No OpenAI stream became free within " + streamWaitTimeout));
+            return stream;
+        }
+        httpClientMetrics.recordStreamOpened();
+        // Completes once however the stream ends, including cancel()
+        stream.completion().whenComplete((ignored, error) -> {
+            openStreams.release();
+            httpClientMetrics.recordStreamClosed();
+        });
+
+        httpClient.sendAsync(request.build(), info -> info.statusCode() / 100 == 2
+                ? HttpResponse.BodySubscribers.fromLineSubscriber(stream)
+                : HttpResponse.BodySubscribers.mapping(
+                    HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8),
+                    error -> {
+                        throw new RuntimeException("OpenAI returned " + info.statusCode() + ": " + error);
+                    }))
+            .whenComplete((response, error) -> {
+                if (error != null) {
+                    stream.fail(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+                } else {
+                    // The body ended; normally [DONE] has already completed the stream
+                    stream.finish();
+                }
+            });
+        return stream;
+    }
+
+    private boolean acquireStream() {
+        try {
+            return openStreams.tryAcquire(streamWaitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public final class ChatStream implements Flow.Subscriber<String> {
+
+        private final Consumer<String> onDelta;
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        private volatile Flow.Subscription subscription;
+
+        private ChatStream(Consumer<String> onDelta) {
+            this.onDelta = onDelta;
+        }
+
+        public CompletableFuture<Void> completion() {
+            return completion;
+        }
+
+        // Stops reading from OpenAI, e.g. once the browser has gone away
+        public void cancel() {
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+            completion.cancel(false);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (completion.isDone()) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (completion.isDone() || !line.startsWith(DATA_PREFIX)) {
+                return;
+            }
+            String data = line.substring(DATA_PREFIX.length()).trim();
+            if (DONE.equals(data)) {
+                finish();
+                return;
+            }
+            JsonNode delta;
+            try {
+                delta = objectMapper.readTree(data).path("choices").path(0).path("delta").path("content");
+            } catch (Exception e) {
+                logger.warn("Aborting chat stream after an unreadable chunk: {}", e.getMessage());
+                fail(e);
+                subscription.cancel();
+                return;
+            }
+            if (delta.isTextual() && !delta.asText().isEmpty()) {
+                try {
+                    onDelta.accept(delta.asText());
+                } catch (RuntimeException e) {
+                    // The consumer gave up, typically because its client disconnected
+                    fail(e);
+                    subscription.cancel();
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            finish();
+        }
+
+        private void finish() {
+            completion.complete(null);
+        }
+
+        private void fail(Throwable throwable) {
+            completion.completeExceptionally(throwable);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.optimize25.backend.service;
+
+import com.optimize25.backend.model.PopulationJob;
+import com.optimize25.backend.model.PopulationJobStatus;
+import com.optimize25.backend.repository.PopulationJobRepository;
+import com.optimize25.backend.repository.PopulationLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Runs populate requests as background jobs. A small, bounded pool of workers talks to OpenAI;
+// each job's progress is written to population_jobs so clients can poll it by id. A lease in
+// population_leases, keyed by the normalized node name, makes sure only one job per node runs
+// across all backend instances. The lease is taken when the job is submitted and renewed on a
+// timer for as long as the job is queued or running, so a job waiting for a worker does not
+// look abandoned.
+@Service
+public class PopulationJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PopulationJobService.class);
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+    private static final String ABANDONED = "Abandoned after its server stopped responding";
+
+    private final PopulationJobRepository repository;
+    private final PopulationLeaseRepository leaseRepository;
+    private final ChatGPTService chatGPTService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final TaskScheduler taskScheduler;
+    private final Duration leaseTtl;
+    private final long leaseTtlSeconds;
+    private final String owner;
+
+    public PopulationJobService(PopulationJobRepository repository,
+                                PopulationLeaseRepository leaseRepository,
+                                ChatGPTService chatGPTService,
+                                PlatformTransactionManager transactionManager,
+                                TaskScheduler taskScheduler,
+                                @Value("${populate.workers:2}") int workers,
+                                @Value("${populate.queue-capacity:20}") int queueCapacity,
+                                @Value("${populate.lease-ttl:5m}") Duration leaseTtl) {
+        this.repository = repository;
+        this.leaseRepository = leaseRepository;
+        this.chatGPTService = chatGPTService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), Thread.ofVirtual().name("populate-", 0).factory());
+        this.taskScheduler = taskScheduler;
+        this.leaseTtl = leaseTtl;
+        this.leaseTtlSeconds = leaseTtl.toSeconds();
+        this.owner = instanceName();
+    }
+
+    // Jobs whose lease is gone will never complete, e.g. because their instance crashed
+    @EventListener(ApplicationReadyEvent.class)
+    public void failAbandonedJobs() {
+        long abandoned = repository.findByStatusIn(EnumSet.of(
+            PopulationJobStatus.QUEUED, PopulationJobStatus.CLASSIFYING,
+            PopulationJobStatus.GENERATING, PopulationJobStatus.SAVING)).stream()
+            .filter(job -> repository.failIfAbandoned(job.getId(), ABANDONED) == 1)
+            .count();
+        if (abandoned > 0) {
+            logger.info("Marked {} abandoned populate jobs as failed", abandoned);
+        }
+        // Three renewals per lease lifetime, so one missed renewal does not lose the lease
+        taskScheduler.scheduleAtFixedRate(this::renewLeases, leaseTtl.dividedBy(3));
+    }
+
+    private void renewLeases() {
+        try {
+            leaseRepository.renewOwned(owner, leaseTtlSeconds);
+        } catch (Exception e) {
+            logger.warn("Could not renew populate leases: {}", e.getMessage());
+        }
+    }
+
+    // Returns the new job, or the job already populating the same node on any instance.
+    // Throws RejectedExecutionException when every worker is busy and the queue is full.
+    public PopulationJob submit(String nodeName) {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            // The job row and its lease commit together, or neither does
+            PopulationJob claimed = transactionTemplate.execute(status -> {
+                PopulationJob job = repository.save(new PopulationJob(nodeName));
+                if (leaseRepository.claim(leaseKey(nodeName), job.getId(), owner, leaseTtlSeconds) == 1) {
+                    return job;
+                }
+                status.setRollbackOnly();
+                return null;
+            });
+            if (claimed != null) {
+                start(claimed);
+                return claimed;
+            }
+
+            Optional<PopulationJob> inFlight = leaseRepository.findLiveJobId(leaseKey(nodeName))
+                .flatMap(repository::findById);
+            if (inFlight.isPresent()) {
+                return inFlight.get();
+            }
+            // The holder finished between our claim and the lookup; try to claim again
+        }
+        throw new RuntimeException("Could not start populating: " + nodeName);
+    }
+
+    public Optional<PopulationJob> getJob(Long id) {
+        Optional<PopulationJob> job = repository.findById(id);
+        if (job.isPresent() && !job.get().getStatus().isFinished() && !leaseRepository.isLive(id)
+                && repository.failIfAbandoned(id, ABANDONED) == 1) {
+            return repository.findById(id);
+        }
+        return job;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void start(PopulationJob job) {
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            job.setStatus(PopulationJobStatus.FAILED);
+            job.setError("Too many populate jobs in progress");
+            repository.save(job);
+            leaseRepository.release(leaseKey(job.getNodeName()), job.getId());
+            throw e;
+        }
+    }
+
+    private void run(PopulationJob job) {
+        try {
+            ChatGPTService.PopulationResult result = chatGPTService.populateNode(job.getNodeName(),
+                status -> updateStatus(job, status));
+            job.setNodeId(result.getNodeId());
+            job.setCreatedNodes(result.getCreatedNodes());
+            updateStatus(job, PopulationJobStatus.COMPLETED);
+            logger.info("Populate job {} for '{}' created {} nodes", job.getId(), job.getNodeName(),
+                result.getCreatedNodes());
+        } catch (Exception e) {
+            logger.error("Populate job {} for '{}' failed", job.getId(), job.getNodeName(), e);
+            job.setError(e.getMessage());
+            updateStatus(job, PopulationJobStatus.FAILED);
+        } finally {
+            // Released only after the final status is saved, so waiters never see a free lease
+            // next to a job that still looks active
+            leaseRepository.release(leaseKey(job.getNodeName()), job.getId());
+        }
+    }
+
+    // Each update is its own short write and renews the lease; no transaction spans the
+    // OpenAI calls. A job that has lost its lease stops before it writes any nodes.
+    private void updateStatus(PopulationJob job, PopulationJobStatus status) {
+        if (!status.isFinished() && leaseRepository.renew(leaseKey(job.getNodeName()), job.getId(), leaseTtlSeconds) == 0) {
+            throw new IllegalStateException("Lost the population lease for: " + job.getNodeName());
+        }
+        job.setStatus(status);
+        repository.save(job);
+    }
+
+    // "Java  Streams" and "java streams" populate the same node
+    private static String leaseKey(String nodeName) {
+        return QuizCache.normalize(nodeName);
+    }
+
+    private static String instanceName() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "/" + ProcessHandle.current().pid();
+    }
+}
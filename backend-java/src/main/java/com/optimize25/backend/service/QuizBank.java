@@ -0,0 +1,153 @@
+package com.optimize25.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.optimize25.backend.dto.KnowledgeNodeSummaryDTO;
+import com.optimize25.backend.model.Question;
+import com.optimize25.backend.model.QuizBankQuestion;
+import com.optimize25.backend.repository.QuizBankQuestionRepository;
+import com.optimize25.backend.repository.QuizNodeVisitRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Pre-generated question pools per knowledge node (quiz_bank_questions). A quiz for a topic that
+// names a node is sampled from the node's pool in one query, so it never waits on OpenAI; the
+// pools themselves are filled and refreshed in the background by QuizBankWarmer. Quiz requests
+// per node are counted in memory and written to quiz_node_visits by the warmer, which uses them
+// to pick the pools worth keeping full.
+@Component
+public class QuizBank {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizBank.class);
+    private static final TypeReference<List<String>> OPTIONS_TYPE = new TypeReference<>() {};
+
+    private final QuizBankQuestionRepository questionRepository;
+    private final QuizNodeVisitRepository visitRepository;
+    private final KnowledgeTreeSnapshotService snapshotService;
+    private final ObjectMapper objectMapper;
+
+    // Visits not yet written to quiz_node_visits
+    private final ConcurrentHashMap<Long, Long> pendingVisits = new ConcurrentHashMap<>();
+    // Nodes asked for while their pool was too small to serve a quiz; the warmer fills them first
+    private final Set<Long> shortPools = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder unlinked = new LongAdder();
+    private final LongAdder bankedQuestions = new LongAdder();
+
+    public QuizBank(QuizBankQuestionRepository questionRepository,
+                    QuizNodeVisitRepository visitRepository,
+                    KnowledgeTreeSnapshotService snapshotService,
+                    ObjectMapper objectMapper) {
+        this.questionRepository = questionRepository;
+        this.visitRepository = visitRepository;
+        this.snapshotService = snapshotService;
+        this.objectMapper = objectMapper;
+    }
+
+    // A full quiz from the pool of the node given by nodeId, or else of the node named like the
+    // topic. Empty when there is no such node or its pool is still too small, in which case the
+    // caller generates a quiz on demand.
+    public Optional<List<Question>> sample(Long nodeId, String topic) {
+        KnowledgeTreeSnapshot snapshot = snapshotService.current();
+        Optional<KnowledgeNodeSummaryDTO> node = nodeId != null
+            ? snapshot.getNode(nodeId) : snapshot.findByName(topic);
+        if (node.isEmpty()) {
+            unlinked.increment();
+            return Optional.empty();
+        }
+        Long id = node.get().getId();
+        pendingVisits.merge(id, 1L, Long::sum);
+
+        List<QuizBankQuestion> rows = questionRepository.sample(id, QuizGenerator.QUESTIONS_PER_QUIZ);
+        if (rows.size() < QuizGenerator.QUESTIONS_PER_QUIZ) {
+            misses.increment();
+            shortPools.add(id);
+            return Optional.empty();
+        }
+        List<Question> questions = new ArrayList<>(rows.size());
+        for (QuizBankQuestion row : rows) {
+            questions.add(toQuestion(row));
+        }
+        hits.increment();
+        return Optional.of(questions);
+    }
+
+    // Adds questions to the node's pool, skipping ones it already has; returns how many were new
+    public int add(Long nodeId, List<Question> questions) {
+        LocalDateTime now = LocalDateTime.now();
+        int added = 0;
+        for (Question question : questions) {
+            added += questionRepository.insertIfAbsent(nodeId, question.getQuestion(),
+                writeOptions(question.getOptions()), question.getCorrectAnswer(), now);
+        }
+        bankedQuestions.add(added);
+        return added;
+    }
+
+    public int trim(Long nodeId, int poolSize) {
+        return questionRepository.trimPool(nodeId, poolSize);
+    }
+
+    public void flushVisits() {
+        LocalDateTime now = LocalDateTime.now();
+        for (Long nodeId : pendingVisits.keySet()) {
+            Long visits = pendingVisits.remove(nodeId);
+            if (visits != null) {
+                visitRepository.addVisits(nodeId, visits, now);
+            }
+        }
+    }
+
+    public List<Long> takeShortPools() {
+        List<Long> nodeIds = new ArrayList<>(shortPools);
+        shortPools.removeAll(nodeIds);
+        return nodeIds;
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("bankHits", hitCount);
+        stats.put("bankMisses", missCount);
+        stats.put("bankHitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("unlinkedTopics", unlinked.sum());
+        stats.put("bankedQuestions", bankedQuestions.sum());
+        stats.put("shortPools", shortPools.size());
+        return stats;
+    }
+
+    private Question toQuestion(QuizBankQuestion row) {
+        Question question = new Question();
+        question.setQuestion(row.getQuestion());
+        question.setCorrectAnswer(row.getCorrectAnswer());
+        try {
+            question.setOptions(objectMapper.readValue(row.getOptions(), OPTIONS_TYPE));
+        } catch (JsonProcessingException e) {
+            logger.error("Unreadable options in banked question {}", row.getId(), e);
+            throw new RuntimeException("Unreadable banked question " + row.getId(), e);
+        }
+        return question;
+    }
+
+    private String writeOptions(List<String> options) {
+        try {
+            return objectMapper.writeValueAsString(options);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize quiz options", e);
+        }
+    }
+}
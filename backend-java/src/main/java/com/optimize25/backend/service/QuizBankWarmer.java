@@ -0,0 +1,208 @@
+package com.optimize25.backend.service;
+
+import com.optimize25.backend.dto.KnowledgeNodeSummaryDTO;
+import com.optimize25.backend.dto.QuizBankPool;
+import com.optimize25.backend.model.Question;
+import com.optimize25.backend.repository.QuizBankQuestionRepository;
+import com.optimize25.backend.repository.QuizNodeVisitRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Keeps QuizBank's pools full. Each run writes the buffered visit counts, then tops up the pools
+// of nodes that were asked for while too small, followed by the quiz.bank.warm-nodes most
+// visited ones. A pool is topped up while it holds fewer than quiz.bank.pool-size questions, and
+// refreshed with a new batch, dropping its oldest, once its newest question is older than
+// quiz.bank.refresh-after. Nodes take turns one generation at a time, at most
+// quiz.bank.max-generations-per-run per run, so one empty pool cannot hold up the others.
+@Component
+public class QuizBankWarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizBankWarmer.class);
+
+    private final QuizBank quizBank;
+    private final QuizGenerator quizGenerator;
+    private final QuizBankQuestionRepository questionRepository;
+    private final QuizNodeVisitRepository visitRepository;
+    private final KnowledgeTreeSnapshotService snapshotService;
+    private final TaskScheduler taskScheduler;
+    private final ThreadPoolExecutor executor;
+    private final int poolSize;
+    private final int warmNodes;
+    private final int maxGenerationsPerRun;
+    private final Duration refreshAfter;
+    private final Duration initialDelay;
+    private final Duration interval;
+
+    public QuizBankWarmer(QuizBank quizBank,
+                          QuizGenerator quizGenerator,
+                          QuizBankQuestionRepository questionRepository,
+                          QuizNodeVisitRepository visitRepository,
+                          KnowledgeTreeSnapshotService snapshotService,
+                          TaskScheduler taskScheduler,
+                          @Value("${quiz.bank.pool-size:25}") int poolSize,
+                          @Value("${quiz.bank.warm-nodes:50}") int warmNodes,
+                          @Value("${quiz.bank.max-generations-per-run:10}") int maxGenerationsPerRun,
+                          @Value("${quiz.bank.refresh-after:7d}") Duration refreshAfter,
+                          @Value("${quiz.bank.warm-initial-delay:30s}") Duration initialDelay,
+                          @Value("${quiz.bank.warm-interval:1m}") Duration interval) {
+        this.quizBank = quizBank;
+        this.quizGenerator = quizGenerator;
+        this.questionRepository = questionRepository;
+        this.visitRepository = visitRepository;
+        this.snapshotService = snapshotService;
+        this.taskScheduler = taskScheduler;
+        // One run at a time; a tick that finds the last run still going is dropped
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new SynchronousQueue<>(), Thread.ofVirtual().name("quiz-bank-warmer").factory());
+        this.poolSize = Math.max(QuizGenerator.QUESTIONS_PER_QUIZ, poolSize);
+        this.warmNodes = warmNodes;
+        this.maxGenerationsPerRun = maxGenerationsPerRun;
+        this.refreshAfter = refreshAfter;
+        this.initialDelay = initialDelay;
+        this.interval = interval;
+    }
+
+    // Scheduled here rather than with @Scheduled so the delays take the same "30s" style as the
+    // other durations. The scheduler only hands each run to the warmer's own thread: a run can
+    // spend minutes waiting on OpenAI, and the scheduler's single thread also reloads the tree
+    // snapshot and renews populate leases.
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        taskScheduler.scheduleWithFixedDelay(this::submitWarm, Instant.now().plus(initialDelay), interval);
+        logger.info("Quiz bank warm-up scheduled every {}", interval);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void submitWarm() {
+        try {
+            executor.execute(this::warm);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Previous quiz bank warm-up still running; skipping this one");
+        }
+    }
+
+    public void warm() {
+        try {
+            quizBank.flushVisits();
+
+            Set<Long> nodeIds = new LinkedHashSet<>(quizBank.takeShortPools());
+            nodeIds.addAll(visitRepository.findMostVisitedNodeIds(warmNodes));
+            if (nodeIds.isEmpty()) {
+                return;
+            }
+            Map<Long, QuizBankPool> existing = questionRepository.findPools(nodeIds).stream()
+                .collect(Collectors.toMap(QuizBankPool::getNodeId, pool -> pool));
+            LocalDateTime staleBefore = LocalDateTime.now().minus(refreshAfter);
+            Map<Long, Pool> pools = new LinkedHashMap<>();
+            for (Long nodeId : nodeIds) {
+                QuizBankPool pool = existing.get(nodeId);
+                pools.put(nodeId, pool == null ? new Pool(0, false)
+                    : new Pool(pool.getQuestions().intValue(), pool.getNewestAt().isBefore(staleBefore)));
+            }
+
+            long startTime = System.currentTimeMillis();
+            int generations = 0;
+            int added = 0;
+            boolean progress = true;
+            while (progress && generations < maxGenerationsPerRun) {
+                progress = false;
+                for (Map.Entry<Long, Pool> entry : pools.entrySet()) {
+                    Pool pool = entry.getValue();
+                    if (generations >= maxGenerationsPerRun) {
+                        break;
+                    }
+                    if (pool.failed || (pool.size >= poolSize && !pool.stale)) {
+                        continue;
+                    }
+                    generations++;
+                    int fresh = fill(entry.getKey(), pool);
+                    added += fresh;
+                    progress |= fresh > 0;
+                }
+            }
+            if (generations > 0) {
+                logger.info("Quiz bank warm-up added {} questions in {} generations across {} nodes in {} ms",
+                    added, generations, pools.size(), System.currentTimeMillis() - startTime);
+            }
+        } catch (Exception e) {
+            // The next run starts over from the tables
+            logger.error("Quiz bank warm-up failed", e);
+        }
+    }
+
+    // One generation for the node; returns how many questions were new to its pool
+    private int fill(Long nodeId, Pool pool) {
+        Optional<String> topic = topicOf(nodeId);
+        if (topic.isEmpty()) {
+            pool.failed = true;
+            return 0;
+        }
+        try {
+            List<Question> questions = quizGenerator.generate(topic.get());
+            int fresh = quizBank.add(nodeId, questions);
+            pool.size += fresh;
+            pool.stale = false;
+            if (pool.size > poolSize) {
+                pool.size -= quizBank.trim(nodeId, poolSize);
+            }
+            if (fresh == 0) {
+                // Only repeats came back; leave the node for the next run
+                pool.failed = true;
+            }
+            return fresh;
+        } catch (Exception e) {
+            pool.failed = true;
+            logger.warn("Could not generate quiz bank questions for node {}: {}", nodeId, e.getMessage());
+            return 0;
+        }
+    }
+
+    // The node's name in the context of its ancestors, e.g. "Software Engineering > Java > Streams"
+    private Optional<String> topicOf(Long nodeId) {
+        KnowledgeTreeSnapshot snapshot = snapshotService.current();
+        Optional<KnowledgeNodeSummaryDTO> node = snapshot.getNode(nodeId);
+        if (node.isEmpty()) {
+            return Optional.empty();
+        }
+        StringBuilder topic = new StringBuilder();
+        for (KnowledgeNodeSummaryDTO ancestor : snapshot.getAncestors(nodeId)) {
+            topic.append(ancestor.getName()).append(" > ");
+        }
+        return Optional.of(topic.append(node.get().getName()).toString());
+    }
+
+    private static final class Pool {
+        private int size;
+        private boolean stale;
+        private boolean failed;
+
+        private Pool(int size, boolean stale) {
+            this.size = size;
+            this.stale = stale;
+        }
+    }
+}
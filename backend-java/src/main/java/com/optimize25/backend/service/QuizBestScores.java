@@ -0,0 +1,71 @@
+package com.optimize25.backend.service;
+
+import com.optimize25.backend.model.QuizTopicStats;
+import com.optimize25.backend.repository.QuizTopicStatsRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.OptionalDouble;
+
+// Best quiz score per user and topic, kept in memory so scoring a submission needs no database
+// read. Loaded from quiz_topic_stats at startup and updated as results are saved. While every
+// entry fits (quiz.results.best-scores.max-entries), a missing entry means the user has no score
+// on the topic yet; only once entries have been evicted does a miss fall back to the table.
+// Results saved by other instances are not seen, so with several replicas a best score can lag
+// behind the table; it is never higher than the true one.
+@Component
+public class QuizBestScores {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizBestScores.class);
+
+    private final QuizTopicStatsRepository repository;
+    private final int maxEntries;
+    private final BoundedCache<QuizTopicStats.Key, Double> bestScores;
+    // True while the map holds every user and topic that has a score
+    private volatile boolean complete;
+
+    public QuizBestScores(QuizTopicStatsRepository repository,
+                          @Value("${quiz.results.best-scores.max-entries:10000}") int maxEntries) {
+        this.repository = repository;
+        this.maxEntries = maxEntries;
+        // A miss can only be trusted to mean "no score" while nothing has been evicted
+        this.bestScores = new BoundedCache<>(maxEntries, () -> complete = false);
+    }
+
+    @PostConstruct
+    public void load() {
+        long startTime = System.currentTimeMillis();
+        List<QuizTopicStats> recent = repository.findAll(PageRequest.of(0, maxEntries + 1,
+            Sort.by(Sort.Direction.DESC, "lastAttemptAt"))).getContent();
+        complete = recent.size() <= maxEntries;
+        // Oldest first, so the most recently taken topics are the last to be evicted
+        for (int i = Math.min(recent.size(), maxEntries) - 1; i >= 0; i--) {
+            QuizTopicStats stats = recent.get(i);
+            bestScores.put(new QuizTopicStats.Key(stats.getUserId(), stats.getTopic()), stats.getBestScore());
+        }
+        logger.info("Loaded {} best quiz scores in {} ms{}", bestScores.size(),
+            System.currentTimeMillis() - startTime, complete ? "" : " (partial)");
+    }
+
+    public OptionalDouble get(Long userId, String topic) {
+        QuizTopicStats.Key key = new QuizTopicStats.Key(userId, topic);
+        Double best = bestScores.get(key);
+        if (best == null && !complete) {
+            best = repository.findById(key).map(QuizTopicStats::getBestScore).orElse(null);
+            if (best != null) {
+                bestScores.merge(key, best, Math::max);
+            }
+        }
+        return best != null ? OptionalDouble.of(best) : OptionalDouble.empty();
+    }
+
+    // Called once the score is saved (or queued, in ASYNC mode)
+    public void record(Long userId, String topic, double score) {
+        bestScores.merge(new QuizTopicStats.Key(userId, topic), score, Math::max);
+    }
+}
@@ -0,0 +1,207 @@
+package com.optimize25.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.optimize25.backend.model.Question;
+import com.optimize25.backend.model.QuizQuestionSet;
+import com.optimize25.backend.repository.QuizQuestionSetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Two-tier cache of generated quizzes: a bounded in-memory map in front of the quiz_questions
+// table. Each topic holds up to setsPerTopic question sets; a topic is only served from the
+// cache once it has all of them, so repeat takers see varied quizzes.
+@Component
+public class QuizCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizCache.class);
+
+    private final QuizQuestionSetRepository repository;
+    private final ObjectMapper objectMapper;
+    private final int maxTopics;
+    private final int setsPerTopic;
+    private final Duration ttl;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder persistentLoads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public QuizCache(QuizQuestionSetRepository repository,
+                     ObjectMapper objectMapper,
+                     @Value("${quiz.cache.max-topics:500}") int maxTopics,
+                     @Value("${quiz.cache.sets-per-topic:3}") int setsPerTopic,
+                     @Value("${quiz.cache.ttl:7d}") Duration ttl) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.maxTopics = maxTopics;
+        this.setsPerTopic = Math.max(1, setsPerTopic);
+        this.ttl = ttl;
+    }
+
+    public static String normalize(String topic) {
+        return topic == null ? "" : topic.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // Returns a random cached set once the topic's rotation is full; otherwise the caller
+    // should generate a new set and put it
+    public Optional<List<Question>> get(String topic) {
+        List<CachedSet> sets = load(normalize(topic));
+        if (sets.size() < setsPerTopic) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(randomSet(sets));
+    }
+
+    // Any cached set, whether or not the rotation is full; used when generation fails
+    public Optional<List<Question>> getAny(String topic) {
+        List<CachedSet> sets = load(normalize(topic));
+        return sets.isEmpty() ? Optional.empty() : Optional.of(randomSet(sets));
+    }
+
+    // Write-through: the set is persisted before it becomes visible in memory
+    public void put(String topic, List<Question> questions) {
+        String key = normalize(topic);
+        // Load the topic before saving, so the new row is not also picked up from the table
+        load(key);
+        List<Question> copy = List.copyOf(questions);
+        QuizQuestionSet saved;
+        try {
+            saved = repository.save(new QuizQuestionSet(key, topic.trim(), objectMapper.writeValueAsString(copy)));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize quiz for topic: " + topic, e);
+        }
+
+        CachedSet set = new CachedSet(copy, saved.getCreatedAt());
+        entries.compute(key, (k, entry) -> {
+            List<CachedSet> sets = new ArrayList<>(entry != null ? entry.sets : List.of());
+            sets.add(set);
+            // Keep only the newest sets once the rotation is full
+            while (sets.size() > setsPerTopic) {
+                sets.remove(0);
+            }
+            return new Entry(sets);
+        });
+        evictIfNeeded();
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("topics", entries.size());
+        stats.put("maxTopics", maxTopics);
+        stats.put("setsPerTopic", setsPerTopic);
+        stats.put("ttlSeconds", ttl.toSeconds());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("persistentLoads", persistentLoads.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        return stats;
+    }
+
+    private List<CachedSet> load(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            // Loaded outside the map so a slow query never blocks other topics; a concurrent
+            // loader of the same topic may win, in which case its entry is used
+            Entry loaded = new Entry(loadPersisted(key));
+            Entry existing = entries.putIfAbsent(key, loaded);
+            entry = existing != null ? existing : loaded;
+            evictIfNeeded();
+        }
+        entry.lastAccess = System.nanoTime();
+
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        long expired = entry.sets.stream().filter(set -> !set.createdAt.isAfter(cutoff)).count();
+        if (expired > 0) {
+            // Drop expired sets; the persistent tier is trimmed the next time the topic loads
+            expirations.add(expired);
+            entry = entries.computeIfPresent(key, (k, current) -> new Entry(
+                current.sets.stream().filter(set -> set.createdAt.isAfter(cutoff)).toList()));
+            return entry != null ? entry.sets : List.of();
+        }
+        return entry.sets;
+    }
+
+    private List<CachedSet> loadPersisted(String key) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        repository.deleteExpired(key, cutoff);
+        List<QuizQuestionSet> rows = repository.findByTopicKeyAndCreatedAtAfterOrderByCreatedAt(key, cutoff);
+        List<CachedSet> sets = new ArrayList<>(rows.size());
+        for (QuizQuestionSet row : rows) {
+            try {
+                List<Question> questions = objectMapper.readValue(row.getQuestions(), new TypeReference<List<Question>>() {});
+                sets.add(new CachedSet(List.copyOf(questions), row.getCreatedAt()));
+            } catch (JsonProcessingException e) {
+                logger.warn("Skipping unreadable cached quiz {} for topic '{}'", row.getId(), key);
+            }
+        }
+        if (!sets.isEmpty()) {
+            persistentLoads.increment();
+        }
+        // Only the newest sets take part in the rotation
+        return sets.size() > setsPerTopic ? sets.subList(sets.size() - setsPerTopic, sets.size()) : sets;
+    }
+
+    // Evicts least recently used topics from memory; they remain in the persistent tier
+    private void evictIfNeeded() {
+        while (entries.size() > maxTopics) {
+            String eldest = null;
+            long eldestAccess = Long.MAX_VALUE;
+            for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+                if (candidate.getValue().lastAccess < eldestAccess) {
+                    eldestAccess = candidate.getValue().lastAccess;
+                    eldest = candidate.getKey();
+                }
+            }
+            if (eldest == null || entries.remove(eldest) == null) {
+                return;
+            }
+            evictions.increment();
+        }
+    }
+
+    private static List<Question> randomSet(List<CachedSet> sets) {
+        return sets.get(ThreadLocalRandom.current().nextInt(sets.size())).questions;
+    }
+
+    private static final class CachedSet {
+        private final List<Question> questions;
+        private final LocalDateTime createdAt;
+
+        private CachedSet(List<Question> questions, LocalDateTime createdAt) {
+            this.questions = questions;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final class Entry {
+        private final List<CachedSet> sets;
+        private volatile long lastAccess = System.nanoTime();
+
+        private Entry(List<CachedSet> sets) {
+            this.sets = List.copyOf(sets);
+        }
+    }
+}
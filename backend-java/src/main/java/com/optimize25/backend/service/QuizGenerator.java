@@ -0,0 +1,216 @@
+package com.optimize25.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.optimize25.backend.model.Question;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Generates quiz questions with OpenAI's JSON mode, streaming the answer through
+// QuizStreamParser so each question is checked as soon as it arrives. Questions that fail the
+// checks are dropped, and only the missing ones are asked for again, up to
+// quiz.generation.max-retries more requests, instead of discarding the whole answer.
+@Component
+public class QuizGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizGenerator.class);
+    public static final int QUESTIONS_PER_QUIZ = 5;
+    private static final int OPTIONS_PER_QUESTION = 4;
+    private static final String MODEL = "gpt-3.5-turbo";
+    // An answer given as the option's letter, e.g. "B" or "b)"
+    private static final Pattern OPTION_LETTER = Pattern.compile("^([A-Da-d])[).:]?$");
+
+    private final OpenAiStreamClient streamClient;
+    private final ObjectMapper objectMapper;
+    private final int maxRetries;
+    private final Duration timeout;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder retryRequests = new LongAdder();
+    private final LongAdder acceptedQuestions = new LongAdder();
+    private final LongAdder rejectedQuestions = new LongAdder();
+
+    public QuizGenerator(OpenAiStreamClient streamClient,
+                         ObjectMapper objectMapper,
+                         @Value("${quiz.generation.max-retries:2}") int maxRetries,
+                         @Value("${openai.http.read-timeout:120s}") Duration timeout) {
+        this.streamClient = streamClient;
+        this.objectMapper = objectMapper;
+        this.maxRetries = maxRetries;
+        this.timeout = timeout;
+    }
+
+    // Returns up to QUESTIONS_PER_QUIZ valid questions; fewer only when the retries ran out.
+    // Throws when not a single valid question came back.
+    public List<Question> generate(String topic) {
+        // Filled from the stream's callbacks
+        List<Question> accepted = Collections.synchronizedList(new ArrayList<>());
+        Exception lastFailure = null;
+        for (int attempt = 0; attempt <= maxRetries && accepted.size() < QUESTIONS_PER_QUIZ; attempt++) {
+            if (attempt > 0) {
+                retryRequests.increment();
+                logger.info("Asking again for {} of {} quiz questions about {}",
+                    QUESTIONS_PER_QUIZ - accepted.size(), QUESTIONS_PER_QUIZ, topic);
+            }
+            try {
+                requestQuestions(topic, accepted);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while generating quiz", e);
+            } catch (Exception e) {
+                // Questions that arrived before the failure are kept
+                lastFailure = e;
+                logger.warn("Quiz request for {} failed with {} valid questions so far: {}",
+                    topic, accepted.size(), e.getMessage());
+            }
+        }
+        if (accepted.isEmpty()) {
+            throw new RuntimeException("No valid questions generated"
+                + (lastFailure != null ? ": " + lastFailure.getMessage() : ""));
+        }
+        synchronized (accepted) {
+            return new ArrayList<>(accepted);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("generationRequests", requests.sum());
+        stats.put("generationRetries", retryRequests.sum());
+        stats.put("acceptedQuestions", acceptedQuestions.sum());
+        stats.put("rejectedQuestions", rejectedQuestions.sum());
+        return stats;
+    }
+
+    // Streams one request for the questions still missing, adding each valid one to accepted
+    private void requestQuestions(String topic, List<Question> accepted) throws Exception {
+        int missing = QUESTIONS_PER_QUIZ - accepted.size();
+        Set<String> seen = new HashSet<>();
+        List<Question> existing;
+        synchronized (accepted) {
+            existing = new ArrayList<>(accepted);
+        }
+        existing.forEach(q -> seen.add(q.getQuestion().toLowerCase(Locale.ROOT)));
+
+        QuizStreamParser parser = new QuizStreamParser(objectMapper, node -> {
+            Optional<Question> question = validate(node);
+            if (question.isEmpty() || accepted.size() >= QUESTIONS_PER_QUIZ
+                    || !seen.add(question.get().getQuestion().toLowerCase(Locale.ROOT))) {
+                rejectedQuestions.increment();
+                logger.debug("Dropped quiz question about {}: {}", topic, node);
+                return;
+            }
+            accepted.add(question.get());
+            acceptedQuestions.increment();
+        });
+
+        requests.increment();
+        long startTime = System.currentTimeMillis();
+        OpenAiStreamClient.ChatStream stream = streamClient.streamChat(requestBody(topic, missing, existing), delta -> {
+            try {
+                parser.feed(delta);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        try {
+            stream.completion().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            stream.cancel();
+            throw e;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+        if (!parser.finish()) {
+            logger.warn("Quiz answer for {} ended before its JSON was complete", topic);
+        }
+        logger.info("Quiz generation took {} ms, {} of {} questions valid",
+            System.currentTimeMillis() - startTime, accepted.size(), QUESTIONS_PER_QUIZ);
+    }
+
+    private Map<String, Object> requestBody(String topic, int count, List<Question> existing) {
+        String prompt = String.format(
+            "Generate %d technical multiple choice questions about %s. " +
+            "Each question must have exactly %d distinct options, and correctAnswer must be the exact text " +
+            "of one of them. Respond with a JSON object of the form " +
+            "{\"questions\": [{\"question\": \"...\", \"options\": [\"...\", \"...\", \"...\", \"...\"], " +
+            "\"correctAnswer\": \"...\"}]}.",
+            count, topic, OPTIONS_PER_QUESTION
+        );
+        if (!existing.isEmpty()) {
+            StringBuilder avoid = new StringBuilder(" Do not repeat any of these questions:");
+            existing.forEach(q -> avoid.append("\n- ").append(q.getQuestion()));
+            prompt += avoid;
+        }
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", MODEL);
+        requestBody.put("messages", Arrays.asList(
+            Map.of("role", "system", "content", "You are a technical quiz generator. Respond only with JSON."),
+            Map.of("role", "user", "content", prompt)
+        ));
+        // JSON mode: the answer is always a single, syntactically valid JSON object
+        requestBody.put("response_format", Map.of("type", "json_object"));
+        requestBody.put("temperature", 0.7);
+        requestBody.put("max_tokens", 1000);
+        return requestBody;
+    }
+
+    // A usable question has text, exactly four distinct options, and a correctAnswer naming one of
+    // them. An answer that differs from its option only in case or spacing, or gives the option's
+    // letter, is rewritten to the option's exact text, since scoring compares it verbatim.
+    static Optional<Question> validate(JsonNode node) {
+        String text = node.path("question").asText("").trim();
+        JsonNode optionNodes = node.path("options");
+        if (text.isEmpty() || !optionNodes.isArray() || optionNodes.size() != OPTIONS_PER_QUESTION) {
+            return Optional.empty();
+        }
+        List<String> options = new ArrayList<>();
+        Set<String> distinct = new HashSet<>();
+        for (JsonNode optionNode : optionNodes) {
+            String option = optionNode.isTextual() ? optionNode.asText().trim() : "";
+            if (option.isEmpty() || !distinct.add(option.toLowerCase(Locale.ROOT))) {
+                return Optional.empty();
+            }
+            options.add(option);
+        }
+
+        String answer = node.path("correctAnswer").asText("").trim();
+        String correct = options.stream().filter(option -> option.equalsIgnoreCase(answer)).findFirst().orElse(null);
+        if (correct == null) {
+            Matcher letter = OPTION_LETTER.matcher(answer);
+            if (!letter.matches()) {
+                return Optional.empty();
+            }
+            correct = options.get(Character.toUpperCase(letter.group(1).charAt(0)) - 'A');
+        }
+
+        Question question = new Question();
+        question.setQuestion(text);
+        question.setOptions(options);
+        question.setCorrectAnswer(correct);
+        return Optional.of(question);
+    }
+}
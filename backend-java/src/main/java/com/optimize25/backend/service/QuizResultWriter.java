@@ -0,0 +1,313 @@
+package com.optimize25.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Writes scored quiz results to quiz_results and quiz_topic_stats. Submissions are appended to a
+// bounded queue that one background writer drains in batches, each batch one transaction of
+// multi-row inserts (see reWriteBatchedInserts) plus one upsert per user and topic. How long a
+// submission waits depends on quiz.results.durability:
+//   SYNC         - written on the request thread before it returns, without the queue
+//   GROUP_COMMIT - queued, and the request waits until the batch holding it has committed
+//   ASYNC        - queued, and the request returns at once; results still queued are lost
+//                  if the process dies
+// A full queue blocks the submitter for up to quiz.results.enqueue-timeout and then rejects it,
+// so a burst of submissions queues up behind the database instead of piling onto it.
+@Service
+public class QuizResultWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizResultWriter.class);
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private static final String INSERT_RESULT =
+        "INSERT INTO public.quiz_results (topic, score, created_at, user_id) VALUES (?, ?, ?, ?)";
+
+    // Every batch is folded into one row per user and topic first, so a statement never meets
+    // the same key twice
+    private static final String UPSERT_STATS =
+        "INSERT INTO public.quiz_topic_stats AS s (user_id, topic, attempts, best_score, average_score, " +
+        "last_score, last_attempt_at, current_streak) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (user_id, topic) DO UPDATE SET attempts = s.attempts + EXCLUDED.attempts, " +
+        "best_score = GREATEST(s.best_score, EXCLUDED.best_score), " +
+        "average_score = (s.average_score * s.attempts + EXCLUDED.average_score * EXCLUDED.attempts) " +
+        "  / (s.attempts + EXCLUDED.attempts), " +
+        "last_score = EXCLUDED.last_score, " +
+        "last_attempt_at = GREATEST(s.last_attempt_at, EXCLUDED.last_attempt_at), " +
+        "current_streak = CASE WHEN EXCLUDED.current_streak = EXCLUDED.attempts " +
+        "  THEN s.current_streak + EXCLUDED.current_streak ELSE EXCLUDED.current_streak END";
+
+    public enum Durability {
+        SYNC, GROUP_COMMIT, ASYNC
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Durability durability;
+    private final int batchSize;
+    private final long maxLingerNanos;
+    private final long enqueueTimeoutNanos;
+    private final double streakPassScore;
+    private final BlockingQueue<PendingResult> queue;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public QuizResultWriter(DataSource dataSource,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${quiz.results.durability:GROUP_COMMIT}") Durability durability,
+                            @Value("${quiz.results.batch-size:200}") int batchSize,
+                            @Value("${quiz.results.max-linger:20ms}") Duration maxLinger,
+                            @Value("${quiz.results.queue-capacity:10000}") int queueCapacity,
+                            @Value("${quiz.results.enqueue-timeout:2s}") Duration enqueueTimeout,
+                            @Value("${quiz.streak.pass-score:60}") double streakPassScore) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.durability = durability;
+        this.batchSize = batchSize;
+        this.maxLingerNanos = maxLinger.toNanos();
+        this.enqueueTimeoutNanos = enqueueTimeout.toNanos();
+        this.streakPassScore = streakPassScore;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writerThread = Thread.ofPlatform().name("quiz-result-writer").daemon().start(this::drain);
+        logger.info("Writing quiz results in {} mode, up to {} per batch", durability, batchSize);
+    }
+
+    // Returns once the result is as durable as the configured mode promises.
+    // Throws RejectedExecutionException when the queue stays full for the whole enqueue timeout.
+    public void write(Long userId, String topic, double score, LocalDateTime createdAt) {
+        PendingResult result = new PendingResult(userId, topic, score, createdAt);
+        if (durability == Durability.SYNC) {
+            writeBatch(List.of(result));
+            return;
+        }
+
+        try {
+            if (!running || !queue.offer(result, enqueueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                rejected.increment();
+                throw new RejectedExecutionException("Too many quiz results waiting to be saved");
+            }
+            if (durability == Durability.GROUP_COMMIT) {
+                result.committed.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while saving quiz result", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to save quiz result: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("durability", durability.name());
+        stats.put("queued", queue.size());
+        stats.put("written", written.sum());
+        stats.put("batches", batches.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    // Stops taking submissions and writes whatever is still queued
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        if (!queue.isEmpty()) {
+            logger.error("{} quiz results were not saved before shutdown", queue.size());
+        }
+    }
+
+    private void drain() {
+        List<PendingResult> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingResult first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Give a burst a moment to fill the batch; an idle queue costs one linger at most
+                long deadline = System.nanoTime() + maxLingerNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    PendingResult next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                writeWithRetry(batch);
+            } catch (InterruptedException e) {
+                // Only a clean shutdown stops the writer; keep going until the queue is empty
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // A batch that fails on its data (e.g. a constraint) would fail the same way on every retry,
+    // so its rows are written one at a time instead and only the bad ones fail. Other failures
+    // are retried as a batch first, then also split up.
+    private void writeWithRetry(List<PendingResult> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                writeBatch(batch);
+                batch.forEach(result -> result.committed.complete(null));
+                return;
+            } catch (Exception e) {
+                boolean badData = e instanceof NonTransientDataAccessException;
+                if (batch.size() > 1 && (badData || attempt >= MAX_WRITE_ATTEMPTS)) {
+                    logger.warn("Writing {} quiz results as a batch failed, writing them one at a time: {}",
+                        batch.size(), e.getMessage());
+                    writeEach(batch);
+                    return;
+                }
+                if (badData || attempt >= MAX_WRITE_ATTEMPTS) {
+                    drop(batch, attempt, e);
+                    return;
+                }
+                logger.warn("Writing {} quiz results failed, retrying: {}", batch.size(), e.getMessage());
+                Thread.sleep(200L * attempt);
+            }
+        }
+    }
+
+    private void writeEach(List<PendingResult> batch) {
+        for (PendingResult result : batch) {
+            List<PendingResult> single = List.of(result);
+            try {
+                writeBatch(single);
+                result.committed.complete(null);
+            } catch (Exception e) {
+                drop(single, 1, e);
+            }
+        }
+    }
+
+    private void drop(List<PendingResult> results, int attempts, Exception e) {
+        failed.add(results.size());
+        logger.error("Dropped {} quiz results after {} failed writes", results.size(), attempts, e);
+        results.forEach(result -> result.committed.completeExceptionally(e));
+    }
+
+    private void writeBatch(List<PendingResult> batch) {
+        List<Object[]> resultRows = new ArrayList<>(batch.size());
+        Map<StatsKey, TopicTotals> totals = new LinkedHashMap<>();
+        for (PendingResult result : batch) {
+            resultRows.add(new Object[] {
+                result.topic, result.score, Timestamp.valueOf(result.createdAt), result.userId
+            });
+            totals.computeIfAbsent(new StatsKey(result.userId, result.topic), key -> new TopicTotals())
+                .add(result, result.score >= streakPassScore);
+        }
+        List<Object[]> statsRows = new ArrayList<>(totals.size());
+        totals.forEach((key, topicTotals) -> statsRows.add(topicTotals.toRow(key)));
+
+        // Results and their totals commit together
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_RESULT, resultRows);
+            jdbcTemplate.batchUpdate(UPSERT_STATS, statsRows);
+        });
+        written.add(batch.size());
+        batches.increment();
+    }
+
+    private static final class PendingResult {
+        private final Long userId;
+        private final String topic;
+        private final double score;
+        private final LocalDateTime createdAt;
+        private final CompletableFuture<Void> committed = new CompletableFuture<>();
+
+        private PendingResult(Long userId, String topic, double score, LocalDateTime createdAt) {
+            this.userId = userId;
+            this.topic = topic;
+            this.score = score;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final class StatsKey {
+        private final Long userId;
+        private final String topic;
+
+        private StatsKey(Long userId, String topic) {
+            this.userId = userId;
+            this.topic = topic;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof StatsKey)) return false;
+            StatsKey key = (StatsKey) o;
+            return Objects.equals(userId, key.userId) && Objects.equals(topic, key.topic);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, topic);
+        }
+    }
+
+    // One batch's attempts on a topic, in submission order. The streak is the run of passes at
+    // the end; when every attempt passed it extends the stored streak instead of replacing it.
+    private static final class TopicTotals {
+        private int attempts;
+        private double bestScore;
+        private double scoreSum;
+        private double lastScore;
+        private LocalDateTime lastAttemptAt;
+        private int trailingPasses;
+
+        void add(PendingResult result, boolean passed) {
+            bestScore = attempts == 0 ? result.score : Math.max(bestScore, result.score);
+            attempts++;
+            scoreSum += result.score;
+            lastScore = result.score;
+            if (lastAttemptAt == null || result.createdAt.isAfter(lastAttemptAt)) {
+                lastAttemptAt = result.createdAt;
+            }
+            trailingPasses = passed ? trailingPasses + 1 : 0;
+        }
+
+        Object[] toRow(StatsKey key) {
+            return new Object[] {
+                key.userId, key.topic, attempts, bestScore, scoreSum / attempts, lastScore,
+                Timestamp.valueOf(lastAttemptAt), trailingPasses
+            };
+        }
+    }
+}
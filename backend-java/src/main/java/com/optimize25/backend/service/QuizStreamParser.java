@@ -0,0 +1,99 @@
+package com.optimize25.backend.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+// Pulls question objects out of a quiz answer while it is still streaming in. Text is fed to
+// Jackson's non-blocking parser as it arrives, and each object found directly inside an array,
+// whether the answer is {"questions": [...]} or a bare [...], is handed over as soon as it closes.
+// Anything before the first '{' or '[' (such as a markdown fence) and after the top-level value
+// ends is ignored.
+final class QuizStreamParser {
+
+    private final ObjectMapper objectMapper;
+    private final Consumer<JsonNode> onQuestion;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private boolean started;
+    private boolean finished;
+    // The question being read, and how deeply nested the parser is inside it
+    private TokenBuffer question;
+    private int questionDepth;
+
+    QuizStreamParser(ObjectMapper objectMapper, Consumer<JsonNode> onQuestion) throws IOException {
+        this.objectMapper = objectMapper;
+        this.onQuestion = onQuestion;
+        this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    void feed(String text) throws IOException {
+        if (finished) {
+            return;
+        }
+        if (!started) {
+            int start = firstContainerStart(text);
+            if (start < 0) {
+                return;
+            }
+            text = text.substring(start);
+            started = true;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        feeder.feedInput(bytes, 0, bytes.length);
+        readAvailable();
+    }
+
+    // Returns true when the top-level value was complete; a question cut off mid-way is dropped
+    boolean finish() throws IOException {
+        if (!finished && started) {
+            feeder.endOfInput();
+            readAvailable();
+        }
+        question = null;
+        return finished;
+    }
+
+    private void readAvailable() throws IOException {
+        JsonToken token;
+        while (!finished && (token = parser.nextToken()) != JsonToken.NOT_AVAILABLE) {
+            if (token == null) {
+                finished = true;
+                break;
+            }
+            if (question != null) {
+                question.copyCurrentEvent(parser);
+                if (token.isStructStart()) {
+                    questionDepth++;
+                } else if (token.isStructEnd() && --questionDepth == 0) {
+                    JsonNode node = objectMapper.readTree(question.asParser(objectMapper));
+                    question = null;
+                    onQuestion.accept(node);
+                }
+            } else if (token == JsonToken.START_OBJECT && parser.getParsingContext().getParent().inArray()) {
+                question = new TokenBuffer(parser);
+                question.copyCurrentEvent(parser);
+                questionDepth = 1;
+            } else if (token.isStructEnd() && parser.getParsingContext().inRoot()) {
+                finished = true;
+            }
+        }
+    }
+
+    private static int firstContainerStart(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '{' || c == '[') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,222 @@
+package com.optimize25.backend.service;
+
+import com.optimize25.backend.dto.KnowledgeNodeSummaryDTO;
+import com.optimize25.backend.model.TopicClassification;
+import com.optimize25.backend.repository.TopicClassificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+// Decides where a topic belongs without asking GPT-4 when it can: known categories, earlier
+// GPT-4 answers (in memory, then in topic_classifications), then a match against the names
+// already filed under each category in the tree. Only when all of these miss does the caller
+// need the LLM, whose answer it hands back through remember().
+@Component
+public class TopicClassifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(TopicClassifier.class);
+    public static final Set<String> KNOWN_CATEGORIES = Set.of(
+        "Software Engineering", "Data Science", "Business", "Psychology", "Mathematics", "Physics", "Biology"
+    );
+    private static final String LEARNING_PLAN = "Learning Plan";
+
+    private final TopicClassificationRepository repository;
+    private final KnowledgeTreeSnapshotService snapshotService;
+    private final BoundedCache<String, Classification> remembered;
+    private volatile TreeIndex treeIndex;
+
+    private final LongAdder knownHits = new LongAdder();
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder persistentHits = new LongAdder();
+    private final LongAdder treeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public TopicClassifier(TopicClassificationRepository repository,
+                           KnowledgeTreeSnapshotService snapshotService,
+                           @Value("${classification.cache.max-topics:1000}") int maxTopics) {
+        this.repository = repository;
+        this.snapshotService = snapshotService;
+        this.remembered = new BoundedCache<>(maxTopics);
+    }
+
+    public Optional<Classification> lookup(String topic) {
+        // A known category is placed directly under Learning Plan
+        if (KNOWN_CATEGORIES.stream().anyMatch(cat -> cat.equalsIgnoreCase(topic))) {
+            knownHits.increment();
+            return Optional.of(Classification.LEARNING_PLAN);
+        }
+
+        String key = QuizCache.normalize(topic);
+        Classification cached = remembered.get(key);
+        if (cached != null) {
+            memoryHits.increment();
+            return Optional.of(cached);
+        }
+
+        Optional<TopicClassification> persisted = repository.findById(key);
+        if (persisted.isPresent()) {
+            Classification classification = new Classification(
+                persisted.get().getCategory(), persisted.get().getSubcategory());
+            remembered.put(key, classification);
+            persistentHits.increment();
+            return Optional.of(classification);
+        }
+
+        // Tree matches are not stored, since they follow the tree as it changes
+        Optional<Classification> matched = currentTreeIndex().match(topic);
+        if (matched.isPresent()) {
+            treeHits.increment();
+            logger.info("Classified '{}' from the tree as {} / {}", topic,
+                matched.get().getCategory(), matched.get().getSubcategory());
+            return matched;
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public void remember(String topic, Classification classification) {
+        String key = QuizCache.normalize(topic);
+        repository.upsert(key, topic.trim(), classification.getCategory(), classification.getSubcategory());
+        remembered.put(key, classification);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cachedTopics", remembered.size());
+        stats.put("knownCategoryHits", knownHits.sum());
+        stats.put("memoryHits", memoryHits.sum());
+        stats.put("persistentHits", persistentHits.sum());
+        stats.put("treeMatches", treeHits.sum());
+        stats.put("llmClassifications", misses.sum());
+        return stats;
+    }
+
+    // Rebuilt only when the snapshot version moves on
+    private TreeIndex currentTreeIndex() {
+        KnowledgeTreeSnapshot snapshot = snapshotService.current();
+        TreeIndex index = treeIndex;
+        if (index == null || index.version != snapshot.getVersion()) {
+            index = TreeIndex.build(snapshot);
+            treeIndex = index;
+        }
+        return index;
+    }
+
+    public static final class Classification {
+        static final Classification LEARNING_PLAN = new Classification(null, null);
+
+        private final String category;
+        private final String subcategory;
+
+        public Classification(String category, String subcategory) {
+            this.category = category;
+            this.subcategory = subcategory;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getSubcategory() {
+            return subcategory;
+        }
+    }
+
+    // Names filed under Learning Plan > category > subcategory (> child), each with the
+    // classification a topic of that name, or containing that name, would get
+    private static final class TreeIndex {
+        private final long version;
+        private final Map<String, Classification> exactNames;
+        private final List<Entry> entries;
+
+        private TreeIndex(long version, Map<String, Classification> exactNames, List<Entry> entries) {
+            this.version = version;
+            this.exactNames = exactNames;
+            this.entries = entries;
+        }
+
+        static TreeIndex build(KnowledgeTreeSnapshot snapshot) {
+            Map<String, Classification> exactNames = new HashMap<>();
+            List<Entry> entries = new ArrayList<>();
+            for (KnowledgeNodeSummaryDTO root : snapshot.getRoots()) {
+                if (!LEARNING_PLAN.equals(root.getName())) {
+                    continue;
+                }
+                for (KnowledgeNodeSummaryDTO category : snapshot.getChildren(root.getId())) {
+                    if (!KNOWN_CATEGORIES.contains(category.getName())) {
+                        continue;
+                    }
+                    for (KnowledgeNodeSummaryDTO subcategory : snapshot.getChildren(category.getId())) {
+                        Classification underSubcategory = new Classification(category.getName(), subcategory.getName());
+                        // The subcategory itself stays where it is, directly under its category
+                        exactNames.putIfAbsent(QuizCache.normalize(subcategory.getName()),
+                            new Classification(category.getName(), ""));
+                        entries.add(new Entry(subcategory.getName(), underSubcategory));
+                        for (KnowledgeNodeSummaryDTO child : snapshot.getChildren(subcategory.getId())) {
+                            exactNames.putIfAbsent(QuizCache.normalize(child.getName()), underSubcategory);
+                            entries.add(new Entry(child.getName(), underSubcategory));
+                        }
+                    }
+                }
+            }
+            return new TreeIndex(snapshot.getVersion(), exactNames, entries);
+        }
+
+        // A topic matches a name when it contains all of the name's words and the name makes up
+        // at least half of the topic. The longest match wins; a tie between different
+        // classifications is left to the LLM.
+        Optional<Classification> match(String topic) {
+            Classification exact = exactNames.get(QuizCache.normalize(topic));
+            if (exact != null) {
+                return Optional.of(exact);
+            }
+
+            Set<String> topicTokens = new HashSet<>(KnowledgeTreeSearchIndex.tokenize(topic));
+            Classification best = null;
+            int bestSize = 0;
+            boolean ambiguous = false;
+            for (Entry entry : entries) {
+                int size = entry.tokens.size();
+                if (size == 0 || size < bestSize || size * 2 < topicTokens.size()
+                        || !topicTokens.containsAll(entry.tokens)) {
+                    continue;
+                }
+                if (size > bestSize) {
+                    best = entry.classification;
+                    bestSize = size;
+                    ambiguous = false;
+                } else if (!sameClassification(best, entry.classification)) {
+                    ambiguous = true;
+                }
+            }
+            return best == null || ambiguous ? Optional.empty() : Optional.of(best);
+        }
+
+        private static boolean sameClassification(Classification a, Classification b) {
+            return Objects.equals(a.getCategory(), b.getCategory())
+                && Objects.equals(a.getSubcategory(), b.getSubcategory());
+        }
+    }
+
+    private static final class Entry {
+        private final Set<String> tokens;
+        private final Classification classification;
+
+        private Entry(String name, Classification classification) {
+            this.tokens = new HashSet<>(KnowledgeTreeSearchIndex.tokenize(name));
+            this.classification = classification;
+        }
+    }
+}
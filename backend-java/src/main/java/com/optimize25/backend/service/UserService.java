@@ -2,32 +2,54 @@ package com.optimize25.backend.service;
 
 import com.optimize25.backend.model.User;
 import com.optimize25.backend.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
 
+// Resolves usernames to user ids. Ids never change for a username, so once resolved they are
+// served from memory and a request costs no users query; a name seen for the first time is
+// created if needed by a single atomic upsert.
 @Service
 public class UserService {
 
-    @Autowired
-    private UserRepository userRepository;
+    public static final String GUEST_USERNAME = "guest";
+
+    private final UserRepository userRepository;
+    private final BoundedCache<String, Long> idsByUsername;
+
+    public UserService(UserRepository userRepository,
+                       @Value("${users.cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.idsByUsername = new BoundedCache<>(maxEntries);
+    }
 
     @PostConstruct
     public void init() {
-        // Create guest user if it doesn't exist
-        if (userRepository.findByUsername("guest").isEmpty()) {
-            User guestUser = new User();
-            guestUser.setUsername("guest");
-            userRepository.save(guestUser);
+        // Create the guest user if it doesn't exist, and have its id ready for the first request
+        getUserId(GUEST_USERNAME);
+    }
+
+    public Long getUserId(String username) {
+        Long id = idsByUsername.get(username);
+        if (id == null) {
+            // Concurrent first lookups may both upsert; they get the same id
+            id = userRepository.upsertId(username);
+            idsByUsername.put(username, id);
         }
+        return id;
+    }
+
+    public Long getGuestUserId() {
+        return getUserId(GUEST_USERNAME);
+    }
+
+    // An uninitialized proxy for associating entities with the user, without loading its row
+    public User getUserReference(String username) {
+        return userRepository.getReferenceById(getUserId(username));
     }
 
-    public User getOrCreateGuestUser() {
-        return userRepository.findByUsername("guest")
-                .orElseGet(() -> {
-                    User guestUser = new User();
-                    guestUser.setUsername("guest");
-                    return userRepository.save(guestUser);
-                });
+    // For when a user is deleted or renamed, so the stale id is not handed out again
+    public void evict(String username) {
+        idsByUsername.remove(username);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,83 @@
+CREATE TABLE public.knowledge_nodes (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description TEXT,
+    parent_id BIGINT,
+    content TEXT,
+    examples TEXT,
+    reference_links TEXT,
+    level INTEGER NOT NULL,
+    node_order INTEGER,
+    path VARCHAR(1024) COLLATE "C",
+    CONSTRAINT fk_parent FOREIGN KEY (parent_id) REFERENCES public.knowledge_nodes(id)
+);
+
+-- Matches the entity's allocationSize: Hibernate hands out the 50 ids up to each value it draws
+ALTER SEQUENCE public.knowledge_nodes_id_seq INCREMENT BY 50;
+
+CREATE INDEX idx_knowledge_nodes_parent_id ON public.knowledge_nodes(parent_id);
+CREATE INDEX idx_knowledge_nodes_path ON public.knowledge_nodes(path);
+
+CREATE TABLE public.users (
+    id BIGSERIAL PRIMARY KEY,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE public.quiz_results (
+    id BIGSERIAL PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    score DOUBLE PRECISION NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    user_id BIGINT NOT NULL,
+    CONSTRAINT fk_quiz_results_user FOREIGN KEY (user_id) REFERENCES public.users(id)
+);
+
+CREATE INDEX idx_quiz_results_user_id ON public.quiz_results(user_id);
+CREATE INDEX idx_quiz_results_topic ON public.quiz_results(topic);
+
+-- Generated quizzes, so cached quizzes survive restarts
+CREATE TABLE public.quiz_questions (
+    id BIGSERIAL PRIMARY KEY,
+    topic_key VARCHAR(255) NOT NULL,
+    topic VARCHAR(255) NOT NULL,
+    questions TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_quiz_questions_topic_key ON public.quiz_questions(topic_key, created_at);
+
+-- Background populate jobs, kept so finished jobs can still be polled
+CREATE TABLE public.population_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    node_name VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    progress INTEGER NOT NULL,
+    error TEXT,
+    node_id BIGINT,
+    created_nodes INTEGER,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_population_jobs_status ON public.population_jobs(status);
+
+-- One row per node being populated, shared by every backend instance. A lease whose
+-- expires_at has passed belongs to a holder that stopped renewing it and may be claimed again.
+CREATE TABLE public.population_leases (
+    node_name VARCHAR(255) PRIMARY KEY,
+    job_id BIGINT NOT NULL REFERENCES public.population_jobs(id) ON DELETE CASCADE,
+    owner VARCHAR(255) NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_population_leases_job_id ON public.population_leases(job_id);
+
+-- Where GPT-4 placed each topic, keyed by normalized topic name, so a topic is classified once
+CREATE TABLE public.topic_classifications (
+    topic_key VARCHAR(255) PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    category VARCHAR(255),
+    subcategory VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
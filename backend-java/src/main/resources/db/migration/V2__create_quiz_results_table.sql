@@ -1,6 +0,0 @@
-CREATE TABLE public.quiz_results (
-    id BIGSERIAL PRIMARY KEY,
-    topic VARCHAR(255) NOT NULL,
-    score DOUBLE PRECISION NOT NULL,
-    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
-); 
\ No newline at end of file
@@ -1,25 +0,0 @@
--- Create users table
-CREATE TABLE IF NOT EXISTS users (
-    id BIGSERIAL PRIMARY KEY,
-    username VARCHAR(255) NOT NULL UNIQUE,
-    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
-);
-
--- Create quiz_results table with user foreign key
-CREATE TABLE IF NOT EXISTS quiz_results (
-    id BIGSERIAL PRIMARY KEY,
-    topic VARCHAR(255) NOT NULL,
-    score DOUBLE PRECISION NOT NULL,
-    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    user_id BIGINT NOT NULL,
-    CONSTRAINT fk_quiz_results_user FOREIGN KEY (user_id) REFERENCES users(id)
-);
-
--- Create index for faster lookups
-CREATE INDEX idx_quiz_results_user_id ON quiz_results(user_id);
-CREATE INDEX idx_quiz_results_topic ON quiz_results(topic);
-
--- Insert the guest user if it doesn't exist
-INSERT INTO users (username, created_at)
-VALUES ('guest', CURRENT_TIMESTAMP)
-ON CONFLICT (username) DO NOTHING; 
\ No newline at end of file
@@ -134,4 +134,21 @@ SELECT 'Mindset and Motivation',
        'How mindset and motivation affect productivity.',
        'Maintaining a positive mindset and high level of motivation can greatly improve productivity. This involves setting achievable goals, celebrating successes, and maintaining a positive attitude. It''s also important to stay motivated, which can be achieved through various techniques such as self-rewarding, visualizing success, and maintaining a passion for what you do.',
        id, 1, 6
-FROM public.knowledge_nodes WHERE name = 'Optimize Productivity'; 
\ No newline at end of file
+FROM public.knowledge_nodes WHERE name = 'Optimize Productivity';
+
+-- Fill in the materialized ancestry path for every seeded node
+WITH RECURSIVE paths AS (
+    SELECT id, CAST('/' AS VARCHAR(1024)) AS path
+    FROM public.knowledge_nodes WHERE parent_id IS NULL
+    UNION ALL
+    SELECT c.id, CAST(p.path || c.parent_id || '/' AS VARCHAR(1024))
+    FROM public.knowledge_nodes c JOIN paths p ON c.parent_id = p.id
+)
+UPDATE public.knowledge_nodes n SET path = paths.path
+FROM paths WHERE n.id = paths.id AND n.path IS NULL;
+
+-- Space sibling ranks out so nodes can be reordered without renumbering their siblings
+UPDATE public.knowledge_nodes SET node_order = node_order * 1024 WHERE node_order IS NOT NULL;
+
+-- Quiz results are recorded against this user until there are real accounts
+INSERT INTO public.users (username, created_at) VALUES ('guest', CURRENT_TIMESTAMP);
@@ -0,0 +1,30 @@
+-- One row per user and topic, kept up to date as each quiz result is saved
+CREATE TABLE public.quiz_topic_stats (
+    user_id BIGINT NOT NULL,
+    topic VARCHAR(255) NOT NULL,
+    attempts INTEGER NOT NULL,
+    best_score DOUBLE PRECISION NOT NULL,
+    average_score DOUBLE PRECISION NOT NULL,
+    last_score DOUBLE PRECISION NOT NULL,
+    last_attempt_at TIMESTAMP NOT NULL,
+    current_streak INTEGER NOT NULL,
+    PRIMARY KEY (user_id, topic),
+    CONSTRAINT fk_quiz_topic_stats_user FOREIGN KEY (user_id) REFERENCES public.users(id)
+);
+
+-- Existing history; the streak counts the latest attempts scoring at least 60 (quiz.streak.pass-score)
+WITH last_failure AS (
+    SELECT user_id, topic, MAX(created_at) AS failed_at
+    FROM public.quiz_results
+    WHERE score < 60
+    GROUP BY user_id, topic
+)
+INSERT INTO public.quiz_topic_stats
+    (user_id, topic, attempts, best_score, average_score, last_score, last_attempt_at, current_streak)
+SELECT r.user_id, r.topic, COUNT(*), MAX(r.score), AVG(r.score),
+       (ARRAY_AGG(r.score ORDER BY r.created_at DESC, r.id DESC))[1],
+       MAX(r.created_at),
+       COUNT(*) FILTER (WHERE r.created_at > COALESCE(f.failed_at, '-infinity'))
+FROM public.quiz_results r
+LEFT JOIN last_failure f ON f.user_id = r.user_id AND f.topic = r.topic
+GROUP BY r.user_id, r.topic;
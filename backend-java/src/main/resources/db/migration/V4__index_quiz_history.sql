@@ -0,0 +1,8 @@
+-- History pages walk a user's results newest first, optionally for one topic, so both orders get
+-- an index that matches the keyset (created_at, id) exactly
+CREATE INDEX idx_quiz_results_user_created ON public.quiz_results (user_id, created_at DESC, id DESC);
+CREATE INDEX idx_quiz_results_user_topic_created ON public.quiz_results (user_id, topic, created_at DESC, id DESC);
+
+-- Covered by the indexes above, or no longer queried; dropping them saves work on every insert
+DROP INDEX public.idx_quiz_results_user_id;
+DROP INDEX public.idx_quiz_results_topic;
@@ -0,0 +1,26 @@
+-- Pre-generated quiz questions per knowledge node, filled by QuizBankWarmer and sampled by generate-quiz
+CREATE TABLE public.quiz_bank_questions (
+    id BIGSERIAL PRIMARY KEY,
+    node_id BIGINT NOT NULL,
+    question TEXT NOT NULL,
+    options TEXT NOT NULL,
+    correct_answer TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_quiz_bank_questions_node FOREIGN KEY (node_id)
+        REFERENCES public.knowledge_nodes(id) ON DELETE CASCADE
+);
+
+-- Sampling and pool sizes by node; the unique index keeps a question from being banked twice
+CREATE INDEX idx_quiz_bank_questions_node ON public.quiz_bank_questions(node_id, created_at);
+CREATE UNIQUE INDEX idx_quiz_bank_questions_text ON public.quiz_bank_questions(node_id, lower(question));
+
+-- How often a quiz was asked for each node, deciding which pools the warmer keeps full
+CREATE TABLE public.quiz_node_visits (
+    node_id BIGINT PRIMARY KEY,
+    visits BIGINT NOT NULL,
+    last_visited_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_quiz_node_visits_node FOREIGN KEY (node_id)
+        REFERENCES public.knowledge_nodes(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_quiz_node_visits_visits ON public.quiz_node_visits(visits DESC);
@@ -0,0 +1,20 @@
+-- Counts committed changes to knowledge_nodes, so every instance can tell when its in-memory
+-- snapshot of the tree is out of date (see KnowledgeTreeSnapshotService)
+CREATE TABLE public.knowledge_tree_version (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    version BIGINT NOT NULL
+);
+
+INSERT INTO public.knowledge_tree_version (id, version) VALUES (1, 0);
+
+CREATE FUNCTION public.bump_knowledge_tree_version() RETURNS trigger AS $$
+BEGIN
+    UPDATE public.knowledge_tree_version SET version = version + 1 WHERE id = 1;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Once per statement, so a batch of inserts bumps the version once rather than once per row
+CREATE TRIGGER knowledge_nodes_bump_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON public.knowledge_nodes
+    FOR EACH STATEMENT EXECUTE FUNCTION public.bump_knowledge_tree_version();
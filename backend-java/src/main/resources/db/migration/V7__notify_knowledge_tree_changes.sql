@@ -0,0 +1,18 @@
+-- Replaces the knowledge_tree_version counter from V6. Every writer updated its one row, so
+-- concurrent tree writes queued on that row's lock until commit. A notification takes no row
+-- lock, is delivered only once the writing transaction commits, and repeats within one
+-- transaction are sent once (see KnowledgeTreeChangeListener).
+DROP TRIGGER knowledge_nodes_bump_version ON public.knowledge_nodes;
+DROP FUNCTION public.bump_knowledge_tree_version();
+DROP TABLE public.knowledge_tree_version;
+
+CREATE FUNCTION public.notify_knowledge_tree_changed() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('knowledge_tree_changed', '');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER knowledge_nodes_notify_changed
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON public.knowledge_nodes
+    FOR EACH STATEMENT EXECUTE FUNCTION public.notify_knowledge_tree_changed();
@@ -0,0 +1,102 @@
+-- Runs only when Flyway baselines a database (spring.flyway.baseline-on-migrate): one that already
+-- has tables but no migration history, i.e. one created by the old schema.sql and data.sql. Those
+-- predate most of V1, so this brings them up to what V1 and V2 create before they are marked as
+-- being at version 2. Every step is skipped when already done, so a database that matches V1
+-- is left as it is.
+
+-- Materialized paths, backfilled from parent_id; the sibling ranks are spaced out as V2 does
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = 'public' AND table_name = 'knowledge_nodes' AND column_name = 'path') THEN
+        ALTER TABLE public.knowledge_nodes ADD COLUMN path VARCHAR(1024) COLLATE "C";
+
+        WITH RECURSIVE paths AS (
+            SELECT id, CAST('/' AS VARCHAR(1024)) AS path
+            FROM public.knowledge_nodes WHERE parent_id IS NULL
+            UNION ALL
+            SELECT c.id, CAST(p.path || c.parent_id || '/' AS VARCHAR(1024))
+            FROM public.knowledge_nodes c JOIN paths p ON c.parent_id = p.id
+        )
+        UPDATE public.knowledge_nodes n SET path = paths.path
+        FROM paths WHERE n.id = paths.id;
+
+        UPDATE public.knowledge_nodes SET node_order = node_order * 1024 WHERE node_order IS NOT NULL;
+    END IF;
+END $$;
+
+-- Matches the entity's allocationSize: Hibernate hands out the 50 ids up to each value it draws
+ALTER SEQUENCE public.knowledge_nodes_id_seq INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS idx_knowledge_nodes_parent_id ON public.knowledge_nodes(parent_id);
+CREATE INDEX IF NOT EXISTS idx_knowledge_nodes_path ON public.knowledge_nodes(path);
+
+-- Users and the owner of each quiz result; Hibernate's ddl-auto=update may have created these
+CREATE TABLE IF NOT EXISTS public.users (
+    id BIGSERIAL PRIMARY KEY,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO public.users (username, created_at) VALUES ('guest', CURRENT_TIMESTAMP)
+ON CONFLICT (username) DO NOTHING;
+
+ALTER TABLE public.quiz_results ADD COLUMN IF NOT EXISTS user_id BIGINT;
+UPDATE public.quiz_results SET user_id = (SELECT id FROM public.users WHERE username = 'guest')
+WHERE user_id IS NULL;
+ALTER TABLE public.quiz_results ALTER COLUMN user_id SET NOT NULL;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'public.quiz_results'::regclass AND contype = 'f'
+                     AND confrelid = 'public.users'::regclass) THEN
+        ALTER TABLE public.quiz_results ADD CONSTRAINT fk_quiz_results_user
+            FOREIGN KEY (user_id) REFERENCES public.users(id);
+    END IF;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_quiz_results_user_id ON public.quiz_results(user_id);
+CREATE INDEX IF NOT EXISTS idx_quiz_results_topic ON public.quiz_results(topic);
+
+-- Tables added to V1 after schema.sql was last used to create a database
+CREATE TABLE IF NOT EXISTS public.quiz_questions (
+    id BIGSERIAL PRIMARY KEY,
+    topic_key VARCHAR(255) NOT NULL,
+    topic VARCHAR(255) NOT NULL,
+    questions TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_quiz_questions_topic_key ON public.quiz_questions(topic_key, created_at);
+
+CREATE TABLE IF NOT EXISTS public.population_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    node_name VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    progress INTEGER NOT NULL,
+    error TEXT,
+    node_id BIGINT,
+    created_nodes INTEGER,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_population_jobs_status ON public.population_jobs(status);
+
+CREATE TABLE IF NOT EXISTS public.population_leases (
+    node_name VARCHAR(255) PRIMARY KEY,
+    job_id BIGINT NOT NULL REFERENCES public.population_jobs(id) ON DELETE CASCADE,
+    owner VARCHAR(255) NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_population_leases_job_id ON public.population_leases(job_id);
+
+CREATE TABLE IF NOT EXISTS public.topic_classifications (
+    topic_key VARCHAR(255) PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    category VARCHAR(255),
+    subcategory VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,160 @@
+package com.optimize25.backend.controller;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The load check behind running on virtual threads: CLIENTS clients post to /api/chatgpt/ask in a
+// loop for the test duration, against a stub OpenAI server that answers each call after a fixed
+// delay. The OpenAI pool is raised so it is not what limits throughput. Prints requests per
+// second and latency percentiles. Not part of the normal build; run it once per thread model:
+//   mvn test -Dtest=AskLoadTest -Dload-test=true
+//   mvn test -Dtest=AskLoadTest -Dload-test=true -Dspring.threads.virtual.enabled=false
+// Optional: -Dload-test.clients=600 -Dload-test.duration=30s -Dload-test.upstream-delay=5s
+@EnabledIfSystemProperty(named = "load-test", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+                properties = {"openai.api.key=test", "OPENAI_API_KEY=test",
+                              "openai.http.max-connections=5000", "openai.http.max-connections-per-route=5000"})
+class AskLoadTest {
+
+    private static final Duration UPSTREAM_DELAY =
+        Duration.parse("PT" + System.getProperty("load-test.upstream-delay", "5s").toUpperCase());
+    private static final String ANSWER =
+        "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"A stub answer.\"}}]}";
+
+    private static final HttpServer stub = startStub();
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @DynamicPropertySource
+    static void openAiUrl(DynamicPropertyRegistry registry) {
+        registry.add("openai.api.url",
+            () -> "http://127.0.0.1:" + stub.getAddress().getPort() + "/v1/chat/completions");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+    }
+
+    @Test
+    void askUnderLoad() throws Exception {
+        int clients = Integer.getInteger("load-test.clients", 600);
+        Duration duration = Duration.parse("PT" + System.getProperty("load-test.duration", "30s").toUpperCase());
+
+        HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/chatgpt/ask"))
+            .header("Content-Type", "application/json")
+            .timeout(Duration.ofSeconds(120))
+            .POST(HttpRequest.BodyPublishers.ofString("{\"question\":\"What is a virtual thread?\"}"))
+            .build();
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger errors = new AtomicInteger();
+        AtomicReference<String> firstError = new AtomicReference<>();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < clients; i++) {
+            callers.execute(() -> {
+                while (System.nanoTime() < end) {
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() == 200) {
+                            latencies.add(System.nanoTime() - sent);
+                        } else {
+                            errors.incrementAndGet();
+                            firstError.compareAndSet(null, response.statusCode() + " " + response.body());
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                        firstError.compareAndSet(null, e.toString());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+        }
+        callers.shutdown();
+        assertTrue(callers.awaitTermination(duration.toSeconds() + 180, TimeUnit.SECONDS));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        assertTrue(!sorted.isEmpty(), "no request succeeded");
+        System.out.printf("LOAD %s threads, %d clients, %d cores: %d ok, %d errors, %.0f req/s, p50 %.1f s, p99 %.1f s%n",
+            virtualThreads ? "virtual" : "platform", clients, Runtime.getRuntime().availableProcessors(),
+            sorted.size(), errors.get(), sorted.size() / seconds,
+            percentile(sorted, 0.50) / 1e9, percentile(sorted, 0.99) / 1e9);
+        if (firstError.get() != null) {
+            System.out.println("LOAD first error: " + firstError.get());
+        }
+    }
+
+    private static long percentile(List<Long> sorted, double fraction) {
+        return sorted.get(Math.min(sorted.size() - 1, (int) (sorted.size() * fraction)));
+    }
+
+    // Answers every chat completion after UPSTREAM_DELAY, on a virtual thread per call
+    private static HttpServer startStub() {
+        // The JDK server keeps only 200 idle keep-alive connections by default and closes the
+        // rest, which the pooled client would then reuse and fail on
+        System.setProperty("sun.net.httpserver.maxIdleConnections", "10000");
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1000);
+            server.createContext("/v1/chat/completions", exchange -> {
+                exchange.getRequestBody().readAllBytes();
+                try {
+                    Thread.sleep(UPSTREAM_DELAY);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] body = ANSWER.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start the stub OpenAI server", e);
+        }
+    }
+}
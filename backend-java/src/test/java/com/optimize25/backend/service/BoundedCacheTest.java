@@ -0,0 +1,44 @@
+package com.optimize25.backend.service;
+
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BoundedCacheTest {
+
+    @Test
+    void evictsTheLeastRecentlyUsedOnceOverItsBoundByATenth() throws InterruptedException {
+        AtomicInteger evictions = new AtomicInteger();
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, evictions::incrementAndGet);
+        for (int i = 0; i < 11; i++) {
+            cache.put(i, "v" + i);
+            Thread.sleep(1);
+        }
+        // Within the slack, nothing goes
+        assertEquals(11, cache.size());
+        assertEquals(0, evictions.get());
+
+        // Touch the oldest, so the next oldest are the ones to go
+        cache.get(0);
+        cache.put(11, "v11");
+
+        assertEquals(10, cache.size());
+        assertEquals(1, evictions.get());
+        assertNotNull(cache.get(0));
+        assertNull(cache.get(1));
+        assertNull(cache.get(2));
+        assertNotNull(cache.get(11));
+    }
+
+    @Test
+    void mergeCombinesWithTheCachedValue() {
+        BoundedCache<String, Double> cache = new BoundedCache<>(10);
+        cache.merge("a", 50.0, Math::max);
+        cache.merge("a", 40.0, Math::max);
+        cache.merge("a", 70.0, Math::max);
+        assertEquals(70.0, cache.get("a"));
+    }
+}
@@ -0,0 +1,140 @@
+package com.optimize25.backend.service;
+
+import com.optimize25.backend.repository.QuizQuestionSetRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+// Fires concurrent quiz requests for one topic at a stub OpenAI server that answers slowly, and
+// checks they share a single upstream call. Needs the PostgreSQL database from
+// application.properties; the quiz it caches there is removed afterwards.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+                properties = {"openai.api.key=test", "OPENAI_API_KEY=test"})
+class EvaluationServiceSingleFlightTest {
+
+    private static final int CALLERS = 8;
+    private static final long UPSTREAM_DELAY_MS = 1000;
+
+    private static final AtomicInteger upstreamRequests = new AtomicInteger();
+    private static final HttpServer stub = startStub();
+
+    // Names no knowledge node and has never been cached, so every call has to go upstream
+    private final String topic = "Single flight " + UUID.randomUUID();
+
+    @Autowired
+    private EvaluationService evaluationService;
+
+    @Autowired
+    private QuizQuestionSetRepository quizQuestionSetRepository;
+
+    @DynamicPropertySource
+    static void openAiUrl(DynamicPropertyRegistry registry) {
+        registry.add("openai.api.url",
+            () -> "http://127.0.0.1:" + stub.getAddress().getPort() + "/v1/chat/completions");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+    }
+
+    @AfterEach
+    void removeCachedQuiz() {
+        // A cutoff in the future expires every set cached for the topic
+        quizQuestionSetRepository.deleteExpired(QuizCache.normalize(topic), LocalDateTime.now().plusDays(1));
+    }
+
+    @Test
+    void concurrentRequestsForOneTopicShareOneUpstreamCall() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Map<String, Object>>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return evaluationService.generateQuiz(topic, null);
+                }));
+            }
+            start.countDown();
+
+            Map<String, Object> first = results.get(0).get();
+            for (Future<Map<String, Object>> result : results) {
+                assertSame(first, result.get());
+            }
+            assertEquals(1, upstreamRequests.get());
+            assertEquals(QuizGenerator.QUESTIONS_PER_QUIZ, ((List<?>) first.get("questions")).size());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    // Streams one complete quiz as chat completion chunks, after a delay long enough for every
+    // caller to arrive while the first request is still in flight
+    private static HttpServer startStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/v1/chat/completions", exchange -> {
+                upstreamRequests.incrementAndGet();
+                exchange.getRequestBody().readAllBytes();
+                try {
+                    Thread.sleep(UPSTREAM_DELAY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(streamedQuiz().getBytes(StandardCharsets.UTF_8));
+                }
+            });
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start the stub OpenAI server", e);
+        }
+    }
+
+    private static String streamedQuiz() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<Map<String, Object>> questions = new ArrayList<>();
+        for (int i = 0; i < QuizGenerator.QUESTIONS_PER_QUIZ; i++) {
+            List<String> options = List.of("Option " + i + "a", "Option " + i + "b", "Option " + i + "c", "Option " + i + "d");
+            questions.add(Map.of("question", "Stub question " + i + "?", "options", options, "correctAnswer", options.get(1)));
+        }
+        String content = mapper.writeValueAsString(Map.of("questions", questions));
+
+        StringBuilder events = new StringBuilder();
+        for (int i = 0; i < content.length(); i += 16) {
+            String piece = content.substring(i, Math.min(content.length(), i + 16));
+            events.append("data: ")
+                .append(mapper.writeValueAsString(Map.of("choices", List.of(Map.of("delta", Map.of("content", piece))))))
+                .append("\n\n");
+        }
+        return events.append("data: [DONE]\n\n").toString();
+    }
+}
@@ -0,0 +1,173 @@
+package com.optimize25.backend.service;
+
+import com.optimize25.backend.model.KnowledgeNode;
+import com.optimize25.backend.repository.KnowledgeNodeRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Checks the set-based subtree delete against the per-node recursive delete it replaced, on two
+// identical trees. Runs against the PostgreSQL database configured in application.properties;
+// each test's transaction is rolled back, so nothing it creates is left behind.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+                properties = {"openai.api.key=test", "OPENAI_API_KEY=test"})
+@Transactional
+class KnowledgeTreeServiceDeleteTest {
+
+    @Autowired
+    private KnowledgeTreeService service;
+
+    @Autowired
+    private KnowledgeNodeRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void deletingATopLevelBranchMatchesTheRecursiveDelete() {
+        assertSameResult("Beta");
+    }
+
+    @Test
+    void deletingANestedBranchMatchesTheRecursiveDelete() {
+        assertSameResult("Beta 2");
+    }
+
+    @Test
+    void deletingALeafMatchesTheRecursiveDelete() {
+        assertSameResult("Gamma");
+    }
+
+    private void assertSameResult(String deletedName) {
+        KnowledgeNode setBasedRoot = buildTree("Delete Test Set-Based");
+        KnowledgeNode recursiveRoot = buildTree("Delete Test Recursive");
+        flushAndClear();
+
+        KnowledgeNode setBasedTarget = findByName(setBasedRoot.getId(), deletedName);
+        KnowledgeNode recursiveTarget = findByName(recursiveRoot.getId(), deletedName);
+        long subtreeSize = repository.countDescendants(setBasedTarget.getId()) + 1;
+        List<Long> deletedIds = subtreeIds(setBasedTarget.getId());
+        deletedIds.addAll(subtreeIds(recursiveTarget.getId()));
+
+        assertEquals(subtreeSize, service.deleteNode(setBasedTarget.getId()));
+        flushAndClear();
+        recursiveDelete(recursiveTarget.getId());
+        flushAndClear();
+
+        for (Long id : deletedIds) {
+            assertFalse(repository.existsById(id), "node " + id + " should have been deleted");
+        }
+        List<String> setBased = describe(setBasedRoot.getId());
+        assertEquals(describe(recursiveRoot.getId()), setBased);
+        assertFalse(setBased.stream().anyMatch(line -> line.trim().startsWith(deletedName + " ")));
+    }
+
+    // Root -> Alpha, Beta (Beta 1, Beta 2 (Beta 2a (Beta 2a i), Beta 2b), Beta 3), Gamma, Delta
+    private KnowledgeNode buildTree(String rootName) {
+        KnowledgeNode root = service.createNode(rootName);
+        service.createNodeWithParent("Alpha", root.getId());
+        KnowledgeNode beta = service.createNodeWithParent("Beta", root.getId());
+        service.createNodeWithParent("Gamma", root.getId());
+        service.createNodeWithParent("Delta", root.getId());
+
+        service.createNodeWithParent("Beta 1", beta.getId());
+        KnowledgeNode beta2 = service.createNodeWithParent("Beta 2", beta.getId());
+        service.createNodeWithParent("Beta 3", beta.getId());
+
+        KnowledgeNode beta2a = service.createNodeWithParent("Beta 2a", beta2.getId());
+        service.createNodeWithParent("Beta 2b", beta2.getId());
+        service.createNodeWithParent("Beta 2a i", beta2a.getId());
+        return root;
+    }
+
+    // The delete as it was before the set-based statement: unlink from the parent, renumber the
+    // remaining siblings, then delete the children depth-first through the entity graph. The one
+    // change is sorting the siblings before renumbering them; the original renumbered them in
+    // whatever order findByParentId returned, which could reshuffle them.
+    private void recursiveDelete(Long id) {
+        repository.findById(id).ifPresent(node -> {
+            if (node.getParent() != null) {
+                node.getParent().getChildren().remove(node);
+
+                List<KnowledgeNode> siblings = repository.findByParentId(node.getParent().getId());
+                siblings.remove(node);
+                siblings.sort(Comparator.comparing(KnowledgeNode::getNodeOrder).thenComparing(KnowledgeNode::getId));
+                for (int i = 0; i < siblings.size(); i++) {
+                    siblings.get(i).setNodeOrder(i);
+                }
+                repository.saveAll(siblings);
+            }
+
+            if (node.getChildren() != null && !node.getChildren().isEmpty()) {
+                deleteChildrenRecursively(node);
+            }
+            repository.delete(node);
+        });
+    }
+
+    private void deleteChildrenRecursively(KnowledgeNode parent) {
+        List<KnowledgeNode> children = new ArrayList<>(parent.getChildren());
+        for (KnowledgeNode child : children) {
+            if (child.getChildren() != null && !child.getChildren().isEmpty()) {
+                deleteChildrenRecursively(child);
+            }
+            repository.delete(child);
+        }
+        parent.getChildren().clear();
+    }
+
+    // One line per remaining node below the root, depth-first in sibling order: name, level, and
+    // whether its path matches its parent's. Sibling ranks are compared by order only, since the
+    // recursive delete renumbered them from 0 while the set-based one leaves the sparse ranks in place.
+    private List<String> describe(Long rootId) {
+        List<String> lines = new ArrayList<>();
+        describe(repository.findById(rootId).orElseThrow(), "", lines);
+        // The two trees differ only in their roots' names
+        return lines.subList(1, lines.size());
+    }
+
+    private void describe(KnowledgeNode node, String indent, List<String> lines) {
+        String expectedPath = node.getParent() != null ? node.getParent().getDescendantPathPrefix() : "/";
+        lines.add(indent + node.getName() + " level=" + node.getLevel()
+            + " pathOk=" + expectedPath.equals(node.getPath()));
+
+        List<KnowledgeNode> children = repository.findByParentId(node.getId());
+        children.sort(Comparator.comparing(KnowledgeNode::getNodeOrder).thenComparing(KnowledgeNode::getId));
+        for (int i = 1; i < children.size(); i++) {
+            assertTrue(children.get(i - 1).getNodeOrder() < children.get(i).getNodeOrder(),
+                "siblings under " + node.getName() + " should have distinct ranks");
+        }
+        for (KnowledgeNode child : children) {
+            describe(child, indent + "  ", lines);
+        }
+    }
+
+    private KnowledgeNode findByName(Long rootId, String name) {
+        return repository.findDescendants(repository.findById(rootId).orElseThrow()).stream()
+            .filter(node -> node.getName().equals(name))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private List<Long> subtreeIds(Long id) {
+        List<Long> ids = new ArrayList<>();
+        ids.add(id);
+        repository.findDescendants(repository.findById(id).orElseThrow())
+            .forEach(node -> ids.add(node.getId()));
+        return ids;
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
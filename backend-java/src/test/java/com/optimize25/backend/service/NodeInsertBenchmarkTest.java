@@ -0,0 +1,243 @@
+package com.optimize25.backend.service;
+
+import com.optimize25.backend.model.KnowledgeNode;
+import com.optimize25.backend.repository.KnowledgeNodeRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// The insert benchmark behind batching knowledge node inserts: saves SIZES nodes under one parent
+// with saveAll in groups of 50, one transaction per 1,000 nodes, and prints rows per second. Each
+// size runs twice; the second round is the warm one. Round trips are what batching saves, so the
+// database can be put behind an in-process proxy that adds LATENCY to every round trip. Runs
+// against the configured database and deletes what it inserted. Not part of the normal build:
+//   mvn test -Dtest=NodeInsertBenchmarkTest -Dinsert-bench=true
+// Optional: -Dinsert-bench.sizes=1000,10000,100000 -Dinsert-bench.latency=1ms (0ms for none)
+@EnabledIfSystemProperty(named = "insert-bench", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+                properties = {"openai.api.key=test", "OPENAI_API_KEY=test"})
+class NodeInsertBenchmarkTest {
+
+    private static final int TRANSACTION_SIZE = 1000;
+    private static final int SAVE_SIZE = 50;
+    private static final Duration LATENCY =
+        DurationStyle.detectAndParse(System.getProperty("insert-bench.latency", "1ms"));
+    private static final Pattern HOST_AND_PORT = Pattern.compile("^(jdbc:postgresql://)([^/:]+)(?::(\\d+))?(/.*)$");
+
+    private static LatencyProxy proxy;
+
+    // Every commit would otherwise reload the whole tree snapshot, and on a small host those
+    // reloads of an ever larger tree take the CPU away from the inserts being measured
+    @MockBean
+    private KnowledgeTreeChangeListener changeListener;
+
+    @Autowired
+    private KnowledgeNodeRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Same URL and parameters as the application uses, pointed at the proxy when there is one
+    @DynamicPropertySource
+    static void datasourceUrl(DynamicPropertyRegistry registry) throws IOException {
+        if (LATENCY.isZero()) {
+            return;
+        }
+        String url = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"))
+            .getProperty("spring.datasource.url");
+        Matcher matcher = HOST_AND_PORT.matcher(url);
+        if (!matcher.matches()) {
+            throw new IllegalStateException("Cannot put a proxy in front of " + url);
+        }
+        int port = matcher.group(3) == null ? 5432 : Integer.parseInt(matcher.group(3));
+        proxy = new LatencyProxy(matcher.group(2), port, LATENCY.dividedBy(2));
+        registry.add("spring.datasource.url",
+            () -> matcher.group(1) + "127.0.0.1:" + proxy.port() + matcher.group(4));
+    }
+
+    @AfterAll
+    static void stopProxy() throws IOException {
+        if (proxy != null) {
+            proxy.close();
+        }
+    }
+
+    @Test
+    void insertThroughput() {
+        List<Integer> sizes = Arrays.stream(System.getProperty("insert-bench.sizes", "1000,10000,100000").split(","))
+            .map(String::trim)
+            .map(Integer::valueOf)
+            .toList();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int round = 1; round <= 2; round++) {
+            for (int size : sizes) {
+                KnowledgeNode parent = transaction.execute(status -> {
+                    KnowledgeNode node = new KnowledgeNode();
+                    node.setName("Insert Benchmark");
+                    node.setLevel(0);
+                    return repository.save(node);
+                });
+                try {
+                    long start = System.nanoTime();
+                    for (int from = 0; from < size; from += TRANSACTION_SIZE) {
+                        int first = from;
+                        int last = Math.min(size, from + TRANSACTION_SIZE);
+                        transaction.executeWithoutResult(status -> saveNodes(parent, first, last));
+                    }
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    System.out.printf("BENCH round %d, %d nodes, %s added latency: %.1f s, %.0f rows/s%n",
+                        round, size, LATENCY, seconds, size / seconds);
+                } finally {
+                    jdbc.update("DELETE FROM public.knowledge_nodes WHERE parent_id = ?", parent.getId());
+                    jdbc.update("DELETE FROM public.knowledge_nodes WHERE id = ?", parent.getId());
+                }
+            }
+        }
+    }
+
+    private void saveNodes(KnowledgeNode parent, int first, int last) {
+        // setParent scans the parent's child list, which on this detached parent would otherwise
+        // keep every node of earlier transactions and make the run quadratic
+        parent.getChildren().clear();
+        List<KnowledgeNode> batch = new ArrayList<>(SAVE_SIZE);
+        for (int i = first; i < last; i++) {
+            KnowledgeNode node = new KnowledgeNode();
+            node.setName("Node " + i);
+            node.setDescription("Generated description " + i);
+            node.setContent("Some generated content for node " + i);
+            node.setLevel(1);
+            node.setNodeOrder(i * 1024);
+            node.setParent(parent);
+            batch.add(node);
+            if (batch.size() == SAVE_SIZE) {
+                repository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        repository.saveAll(batch);
+    }
+
+    // Forwards TCP connections to the database, holding every chunk back by a fixed delay in each
+    // direction. Chunks are queued with the time they are due, so the delay adds latency without
+    // limiting throughput.
+    private static final class LatencyProxy {
+        private static final byte[] END = new byte[0];
+
+        private final ServerSocket server;
+        private final String targetHost;
+        private final int targetPort;
+        private final long delayNanos;
+
+        private LatencyProxy(String targetHost, int targetPort, Duration delay) throws IOException {
+            this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            this.targetHost = targetHost;
+            this.targetPort = targetPort;
+            this.delayNanos = delay.toNanos();
+            Thread.ofVirtual().name("insert-bench-proxy").start(this::accept);
+        }
+
+        private int port() {
+            return server.getLocalPort();
+        }
+
+        private void close() throws IOException {
+            server.close();
+        }
+
+        private void accept() {
+            while (!server.isClosed()) {
+                try {
+                    Socket client = server.accept();
+                    Socket target = new Socket(targetHost, targetPort);
+                    client.setTcpNoDelay(true);
+                    target.setTcpNoDelay(true);
+                    forward(client, target);
+                    forward(target, client);
+                } catch (IOException e) {
+                    if (!server.isClosed()) {
+                        System.err.println("Insert benchmark proxy: " + e);
+                    }
+                }
+            }
+        }
+
+        private void forward(Socket from, Socket to) {
+            BlockingQueue<Chunk> chunks = new LinkedBlockingQueue<>();
+            Thread.ofVirtual().start(() -> {
+                try (InputStream in = from.getInputStream()) {
+                    byte[] buffer = new byte[65536];
+                    int read;
+                    while ((read = in.read(buffer)) > 0) {
+                        chunks.add(new Chunk(System.nanoTime() + delayNanos, Arrays.copyOf(buffer, read)));
+                    }
+                } catch (IOException ignored) {
+                    // The connection closed under us; let the writer finish
+                }
+                chunks.add(new Chunk(System.nanoTime() + delayNanos, END));
+            });
+            Thread.ofVirtual().start(() -> {
+                try (OutputStream out = to.getOutputStream()) {
+                    while (true) {
+                        Chunk chunk = chunks.take();
+                        long wait = chunk.due - System.nanoTime();
+                        if (wait > 0) {
+                            Thread.sleep(Duration.ofNanos(wait));
+                        }
+                        if (chunk.data == END) {
+                            return;
+                        }
+                        out.write(chunk.data);
+                        out.flush();
+                    }
+                } catch (IOException | InterruptedException ignored) {
+                    // Either side went away
+                } finally {
+                    try {
+                        from.close();
+                        to.close();
+                    } catch (IOException ignored) {
+                        // Already closed
+                    }
+                }
+            });
+        }
+    }
+
+    private static final class Chunk {
+        private final long due;
+        private final byte[] data;
+
+        private Chunk(long due, byte[] data) {
+            this.due = due;
+            this.data = data;
+        }
+    }
+}
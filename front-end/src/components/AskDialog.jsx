@@ -6,25 +6,56 @@ export default function AskDialog({ isOpen, onClose }) {
   const [error, setError] = useState('');
   const [isLoading, setIsLoading] = useState(false);
 
+  // Reads the server-sent events from /ask/stream and appends each token as it arrives
   const askQuestion = async () => {
     try {
       setError('');
+      setAnswer('');
       setIsLoading(true);
-      console.log('Sending query:', query);
-      const response = await fetch(`/api/chatgpt/ask`, {
+      const response = await fetch(`/api/chatgpt/ask/stream`, {
         method: 'POST',
         headers: {
           'Content-Type': 'application/json',
+          'Accept': 'text/event-stream',
         },
         body: JSON.stringify({ question: query })
       });
-      console.log('Response status:', response.status);
       if (!response.ok) {
         throw new Error(`HTTP error! status: ${response.status}`);
       }
-      const data = await response.json();
-      console.log('Received data:', data);
-      setAnswer(data.answer);
+
+      const reader = response.body.getReader();
+      const decoder = new TextDecoder();
+      let buffer = '';
+      let finished = false;
+      while (!finished) {
+        const { value, done } = await reader.read();
+        if (done) {
+          break;
+        }
+        buffer += decoder.decode(value, { stream: true });
+        const events = buffer.split(/\r?\n\r?\n/);
+        buffer = events.pop();
+        for (const rawEvent of events) {
+          let eventName = 'message';
+          const dataLines = [];
+          for (const line of rawEvent.split(/\r?\n/)) {
+            if (line.startsWith('event:')) {
+              eventName = line.slice(6).trim();
+            } else if (line.startsWith('data:')) {
+              dataLines.push(line.slice(5));
+            }
+          }
+          if (eventName === 'token') {
+            const { text } = JSON.parse(dataLines.join('\n'));
+            setAnswer(prev => prev + text);
+          } else if (eventName === 'error') {
+            throw new Error(dataLines.join('\n'));
+          } else if (eventName === 'done') {
+            finished = true;
+          }
+        }
+      }
     } catch (error) {
       console.error('Error:', error);
       setError('Failed to get answer. Please try again.');
@@ -103,7 +134,7 @@ export default function AskDialog({ isOpen, onClose }) {
           {answer && (
             <div className="p-4 border rounded bg-gray-50">
               <h2 className="font-semibold mb-2">Answer:</h2>
-              <p>{answer}</p>
+              <p className="whitespace-pre-wrap">{answer}</p>
             </div>
           )}
         </div>
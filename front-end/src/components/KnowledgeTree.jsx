@@ -16,7 +16,7 @@ const Branch = React.memo(({
 }) => {
     const isExpanded = expandedBranches.has(node.id);
     const children = isExpanded ? childNodes[node.id] || [] : [];
-    const hasChildren = node.childIds && node.childIds.length > 0;
+    const hasChildren = node.childCount > 0;
     const isRootNode = level === 0;
     const rootColorClass = isRootNode ? getRootNodeColor(node.name) : '';
 
@@ -117,6 +117,7 @@ const KnowledgeTree = () => {
         references: ''
     });
     const [isPopulating, setIsPopulating] = useState(false);
+    const [populateProgress, setPopulateProgress] = useState(0);
     const populateRequestRef = useRef(null);
     const location = useLocation();
     const navigationHandled = React.useRef(false);
@@ -142,6 +143,7 @@ const KnowledgeTree = () => {
         }
 
         setIsPopulating(true);
+        setPopulateProgress(0);
         setError(null);
         
         try {
@@ -164,8 +166,7 @@ const KnowledgeTree = () => {
                 body: JSON.stringify({
                     existingNodes: existingChildren.map(node => ({
                         name: node.name,
-                        description: node.description,
-                        content: node.content
+                        description: node.description
                     }))
                 }),
                 signal: populateRequestRef.current.signal
@@ -173,7 +174,26 @@ const KnowledgeTree = () => {
             
             if (!response.ok) {
                 const errorText = await response.text();
-                throw new Error(errorText || 'Failed to populate content');
+                throw new Error(errorText || (response.status === 503
+                    ? 'The server is busy generating other plans, please try again shortly'
+                    : 'Failed to populate content'));
+            }
+
+            // Population runs as a background job; poll it until it finishes
+            let job = await response.json();
+            while (job.status !== 'COMPLETED' && job.status !== 'FAILED') {
+                await new Promise(resolve => setTimeout(resolve, 1500));
+                const jobResponse = await fetch(`http://localhost:8080/api/chatgpt/populate/jobs/${job.id}`, {
+                    signal: populateRequestRef.current.signal
+                });
+                if (!jobResponse.ok) {
+                    throw new Error('Failed to check population progress');
+                }
+                job = await jobResponse.json();
+                setPopulateProgress(job.progress);
+            }
+            if (job.status === 'FAILED') {
+                throw new Error(job.error || 'Failed to populate content');
             }
 
             // Refresh the data while maintaining context
@@ -181,7 +201,7 @@ const KnowledgeTree = () => {
             setRootNodes(nodes);
             
             // Find the original node in the fresh data
-            const refreshedNode = await knowledgeTreeService.getNode(currentNodeId);
+            const refreshedNode = await knowledgeTreeService.getNodeDetail(currentNodeId);
             if (!refreshedNode) {
                 throw new Error('Failed to find node after population');
             }
@@ -232,6 +252,27 @@ const KnowledgeTree = () => {
         fetchRootNodes();
     }, []);
 
+    // Tree listings only carry summaries, so load the text fields once a node is selected
+    useEffect(() => {
+        if (!selectedSubtopic?.id || selectedSubtopic.content !== undefined) {
+            return;
+        }
+        let cancelled = false;
+        knowledgeTreeService.getNodeDetail(selectedSubtopic.id)
+            .then(detail => {
+                if (!cancelled) {
+                    setSelectedSubtopic(prev => prev?.id === detail.id ? { ...prev, ...detail } : prev);
+                }
+            })
+            .catch(err => {
+                console.error('Error fetching node details:', err);
+                setError('Failed to load node details');
+            });
+        return () => {
+            cancelled = true;
+        };
+    }, [selectedSubtopic]);
+
     useEffect(() => {
         if (selectedSubtopic) {
             setEditForm({
@@ -370,15 +411,20 @@ const KnowledgeTree = () => {
         
         if (!childNodes[branchId]) {
             try {
-                const children = await knowledgeTreeService.getChildren(branchId);
-                if (children && children.length > 0) {
-                    const childrenWithParent = children.map(child => ({
-                        ...child,
-                        parentId: branchId
-                    }));
+                // Load the branch and its grandchildren in a single request
+                const subtree = await knowledgeTreeService.getSubtree(branchId, 2);
+                const loadedChildNodes = {};
+                const collectChildren = (node) => {
+                    if (node.children && node.children.length > 0) {
+                        loadedChildNodes[node.id] = node.children;
+                        node.children.forEach(collectChildren);
+                    }
+                };
+                collectChildren(subtree);
+                if (Object.keys(loadedChildNodes).length > 0) {
                     setChildNodes(prev => ({
-                        ...prev,
-                        [branchId]: childrenWithParent
+                        ...loadedChildNodes,
+                        ...prev
                     }));
                 }
             } catch (err) {
@@ -394,7 +440,7 @@ const KnowledgeTree = () => {
         setSelectedSubtopic(node);
         setIsEditing(false);
 
-        if (node.childIds?.length > 0 && !childNodes[node.id]) {
+        if (node.childCount > 0 && !childNodes[node.id]) {
             try {
                 const children = await knowledgeTreeService.getChildren(node.id);
                 if (children && children.length > 0) {
@@ -873,7 +919,7 @@ const KnowledgeTree = () => {
             return <div className="text-gray-500">Select a topic to view its content</div>;
         }
 
-        const hasChildren = selectedSubtopic.childIds && selectedSubtopic.childIds.length > 0;
+        const hasChildren = selectedSubtopic.childCount > 0;
         const children = hasChildren ? childNodes[selectedSubtopic.id] || [] : [];
 
         if (isEditing) {
@@ -1000,7 +1046,7 @@ const KnowledgeTree = () => {
                             <circle className="opacity-25" cx="12" cy="12" r="10" stroke="currentColor" strokeWidth="4"></circle>
                             <path className="opacity-75" fill="currentColor" d="M4 12a8 8 0 018-8V0C5.373 0 0 5.373 0 12h4zm2 5.291A7.962 7.962 0 014 12H0c0 3.042 1.135 5.824 3 7.938l3-2.647z"></path>
                         </svg>
-                        <span>Generating Learning Plan... This may take a minute.</span>
+                        <span>Generating Learning Plan... This may take a minute. ({populateProgress}%)</span>
                     </div>
                 )}
                 {selectedSubtopic.description && (
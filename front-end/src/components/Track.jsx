@@ -23,13 +23,16 @@ ChartJS.register(
   Legend
 );
 
+const HISTORY_PAGE_SIZE = 100;
+
 export default function Track() {
   const [quizHistory, setQuizHistory] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const [selectedTopic, setSelectedTopic] = useState('all');
   const [topics, setTopics] = useState([]);
-  const [allQuizHistory, setAllQuizHistory] = useState([]); // Store complete history
+  const [nextCursor, setNextCursor] = useState(null); // Cursor for the next, older page of history
+  const [loadingMore, setLoadingMore] = useState(false);
   const [isNavigating, setIsNavigating] = useState(false);
   const location = useLocation();
   const navigate = useNavigate();
@@ -38,39 +41,49 @@ export default function Track() {
     if (location.state?.topic) {
       setSelectedTopic(location.state.topic);
     }
-    fetchAllQuizHistory();
+    fetchTopics();
   }, [location.state?.topic]);
 
   useEffect(() => {
-    if (selectedTopic === 'all') {
-      setQuizHistory(allQuizHistory);
-    } else {
-      setQuizHistory(allQuizHistory.filter(quiz => quiz.topic === selectedTopic));
-    }
-  }, [selectedTopic, allQuizHistory]);
+    fetchFirstPage(selectedTopic);
+  }, [selectedTopic]);
 
-  const fetchAllQuizHistory = async () => {
+  // Topics come from the per-topic totals, so the list doesn't depend on how much history is loaded
+  const fetchTopics = async () => {
     try {
-      setLoading(true);
-      setError(null);
-      
-      const response = await fetch('/api/evaluate/history');
+      const response = await fetch('/api/evaluate/stats');
       if (!response.ok) {
-        throw new Error('Failed to fetch quiz history');
+        throw new Error('Failed to fetch quiz topics');
       }
-      const data = await response.json();
-      setAllQuizHistory(data);
-      
-      // Set the complete list of unique topics
-      const uniqueTopics = [...new Set(data.map(quiz => quiz.topic))];
-      setTopics(uniqueTopics);
+      const stats = await response.json();
+      setTopics(stats.map(topicStats => topicStats.topic));
+    } catch (err) {
+      setError(err.message);
+    }
+  };
 
-      // Set initial quiz history based on selected topic
-      if (selectedTopic === 'all') {
-        setQuizHistory(data);
-      } else {
-        setQuizHistory(data.filter(quiz => quiz.topic === selectedTopic));
-      }
+  const fetchHistoryPage = async (topic, cursor) => {
+    const path = topic === 'all'
+      ? '/api/evaluate/history'
+      : `/api/evaluate/history/${encodeURIComponent(topic)}`;
+    const params = new URLSearchParams({ limit: HISTORY_PAGE_SIZE });
+    if (cursor) {
+      params.set('before', cursor);
+    }
+    const response = await fetch(`${path}?${params}`);
+    if (!response.ok) {
+      throw new Error('Failed to fetch quiz history');
+    }
+    return response.json();
+  };
+
+  const fetchFirstPage = async (topic) => {
+    try {
+      setLoading(true);
+      setError(null);
+      const page = await fetchHistoryPage(topic, null);
+      setQuizHistory(page.items);
+      setNextCursor(page.nextCursor);
     } catch (err) {
       setError(err.message);
     } finally {
@@ -78,6 +91,19 @@ export default function Track() {
     }
   };
 
+  const loadOlderResults = async () => {
+    try {
+      setLoadingMore(true);
+      const page = await fetchHistoryPage(selectedTopic, nextCursor);
+      setQuizHistory(previous => [...previous, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      setError(err.message);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleViewLearningPlan = async () => {
     if (selectedTopic === 'all') {
       navigate('/knowledge');
@@ -406,8 +432,8 @@ export default function Track() {
                     </tr>
                   </thead>
                   <tbody className="bg-white divide-y divide-gray-200">
-                    {quizHistory.map((quiz, index) => (
-                      <tr key={index}>
+                    {quizHistory.map((quiz) => (
+                      <tr key={quiz.id}>
                         <td className="px-6 py-4 whitespace-nowrap text-sm text-gray-500">
                           {new Date(quiz.createdAt).toLocaleDateString()}
                         </td>
@@ -422,6 +448,17 @@ export default function Track() {
                   </tbody>
                 </table>
               </div>
+              {nextCursor && (
+                <div className="text-center mt-4">
+                  <button
+                    onClick={loadOlderResults}
+                    disabled={loadingMore}
+                    className="px-4 py-2 border rounded-lg text-gray-700 hover:bg-gray-50 disabled:text-gray-400 disabled:cursor-not-allowed"
+                  >
+                    {loadingMore ? 'Loading...' : 'Load older results'}
+                  </button>
+                </div>
+              )}
             </div>
           </>
         )}
@@ -19,6 +19,15 @@ export const knowledgeTreeService = {
         return data;
     },
 
+    async getSubtree(id, depth) {
+        const response = await fetch(`${API_BASE_URL}/${id}/subtree?depth=${depth}`);
+        if (!response.ok) {
+            throw new Error('Failed to fetch subtree');
+        }
+        const data = await response.json();
+        return data;
+    },
+
     async searchNodes(query) {
         const response = await fetch(`${API_BASE_URL}/search?query=${encodeURIComponent(query)}`);
         if (!response.ok) {
@@ -37,6 +46,15 @@ export const knowledgeTreeService = {
         return data;
     },
 
+    async getNodeDetail(id) {
+        const response = await fetch(`${API_BASE_URL}/${id}/detail`);
+        if (!response.ok) {
+            throw new Error('Failed to fetch node details');
+        }
+        const data = await response.json();
+        return data;
+    },
+
     async createNode(node) {
         const response = await fetch(API_BASE_URL, {
             method: 'POST',